@@ -0,0 +1,82 @@
+package org.yxw.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.yxw.io.PropertyResolver;
+import org.yxw.utils.YamlUtils;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 读取属性（直接的key和带占位符的表达式），以及把YAML展开为a.b.c形式的key。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PropertyBenchmark {
+
+    // YAML中key的数量
+    @Param({ "100", "1000", "10000" })
+    int keys;
+
+    Path dir;
+    URLClassLoader classLoader;
+    PropertyResolver propertyResolver;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        this.dir = Files.createTempDirectory("summer-bench-yaml-");
+        SyntheticApplication.writeYaml(this.dir.resolve(SyntheticApplication.YAML_PATH), this.keys);
+        this.classLoader = new URLClassLoader(new URL[] { SyntheticApplication.toURL(this.dir) }, getClass().getClassLoader());
+        this.propertyResolver = new PropertyResolver(SyntheticApplication.createProperties());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        this.classLoader.close();
+        Files.deleteIfExists(this.dir.resolve(SyntheticApplication.YAML_PATH));
+        Files.deleteIfExists(this.dir);
+    }
+
+    @Benchmark
+    public String getProperty() {
+        return this.propertyResolver.getProperty("bench.key42");
+    }
+
+    @Benchmark
+    public String getPropertyWithPlaceholders() {
+        return this.propertyResolver.getProperty("bench.ref42");
+    }
+
+    @Benchmark
+    public String getPropertyExpression() {
+        return this.propertyResolver.getProperty("${bench.key42}");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Map<String, Object> loadYamlAsPlainMap() {
+        Thread.currentThread().setContextClassLoader(this.classLoader);
+        return YamlUtils.loadYamlAsPlainMap(SyntheticApplication.YAML_PATH);
+    }
+}
@@ -0,0 +1,178 @@
+package org.yxw.benchmark;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+/**
+ * 通过javax.tools生成并编译指定数量组件的应用，用于基准测试。
+ *
+ * 每个package有100个类：每4个类中有3个@Component，1个普通类（测试候选过滤）；每10个组件有一个组件通过构造方法依赖前一个组件，
+ * 每5个组件有一个组件通过@Value注入属性。编译时使用ComponentIndexProcessor生成组件索引，同时生成有同样数量key的bench.yml。
+ */
+public final class SyntheticApplication implements AutoCloseable {
+
+    public static final String BASE_PACKAGE = "bench.app";
+    public static final String CONFIG_CLASS = BASE_PACKAGE + ".BenchApplication";
+    public static final String YAML_PATH = "bench.yml";
+
+    static final int CLASSES_PER_PACKAGE = 100;
+    static final int PROPERTY_KEYS = 100;
+
+    final Path dir;
+    final URLClassLoader classLoader;
+    final List<String> componentClassNames;
+
+    SyntheticApplication(Path dir, URLClassLoader classLoader, List<String> componentClassNames) {
+        this.dir = dir;
+        this.classLoader = classLoader;
+        this.componentClassNames = componentClassNames;
+    }
+
+    /**
+     * 生成并编译components个组件，编译结果在临时目录中，close()时删除
+     */
+    public static SyntheticApplication generate(int components) throws IOException {
+        Path dir = Files.createTempDirectory("summer-bench-");
+        Path src = Files.createDirectories(dir.resolve("src"));
+        Path classes = Files.createDirectories(dir.resolve("classes"));
+        List<File> sources = new ArrayList<>();
+        List<String> componentClassNames = new ArrayList<>(components);
+        int total = components + components / 3;
+        String previous = null;
+        for (int i = 0, n = 0; i < total; i++) {
+            String pkg = BASE_PACKAGE + ".p" + (i / CLASSES_PER_PACKAGE);
+            String simpleName = "C" + i;
+            StringBuilder sb = new StringBuilder(512);
+            sb.append("package ").append(pkg).append(";\n\n");
+            if (i % 4 == 3 || n >= components) {
+                sb.append("public class ").append(simpleName).append(" {\n}\n");
+            } else {
+                String className = pkg + "." + simpleName;
+                sb.append("@org.yxw.annotation.Component\npublic class ").append(simpleName).append(" {\n");
+                if (n % 10 == 9 && previous != null) {
+                    sb.append("    public ").append(simpleName).append("(").append(previous).append(" dependency) {\n    }\n");
+                } else if (n % 5 == 4) {
+                    sb.append("    public ").append(simpleName).append("(@org.yxw.annotation.Value(\"${bench.key").append(n % PROPERTY_KEYS)
+                            .append("}\") String value) {\n    }\n");
+                }
+                sb.append("}\n");
+                componentClassNames.add(className);
+                previous = className;
+                n++;
+            }
+            sources.add(write(src, pkg, simpleName, sb.toString()));
+        }
+        sources.add(write(src, BASE_PACKAGE, "BenchApplication",
+                "package " + BASE_PACKAGE + ";\n\n@org.yxw.annotation.ComponentScan(\"" + BASE_PACKAGE + "\")\n@org.yxw.annotation.Configuration\npublic class BenchApplication {\n}\n"));
+        compile(sources, classes);
+        writeYaml(classes.resolve(YAML_PATH), components);
+        URLClassLoader classLoader = new URLClassLoader(new URL[] { toURL(classes) }, SyntheticApplication.class.getClassLoader());
+        return new SyntheticApplication(dir, classLoader, componentClassNames);
+    }
+
+    public ClassLoader getClassLoader() {
+        return classLoader;
+    }
+
+    /**
+     * 加载同一份编译结果的新ClassLoader，用于测量类和缓存都是冷的启动，由调用方关闭
+     */
+    public URLClassLoader newClassLoader() {
+        return new URLClassLoader(new URL[] { toURL(this.dir.resolve("classes")) }, SyntheticApplication.class.getClassLoader());
+    }
+
+    public Class<?> getConfigClass() {
+        return loadClass(CONFIG_CLASS);
+    }
+
+    public List<String> getComponentClassNames() {
+        return componentClassNames;
+    }
+
+    public Class<?> loadClass(String name) {
+        try {
+            return Class.forName(name, true, this.classLoader);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 组件通过@Value引用的key，以及同样数量的带占位符的key
+     */
+    public static Properties createProperties() {
+        Properties props = new Properties();
+        for (int i = 0; i < PROPERTY_KEYS; i++) {
+            props.setProperty("bench.key" + i, "value-" + i);
+            props.setProperty("bench.ref" + i, "${bench.key" + i + "}/${bench.missing:default}");
+        }
+        return props;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.classLoader.close();
+        try (Stream<Path> paths = Files.walk(this.dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    static File write(Path src, String pkg, String simpleName, String code) throws IOException {
+        Path file = src.resolve(pkg.replace('.', File.separatorChar)).resolve(simpleName + ".java");
+        Files.createDirectories(file.getParent());
+        Files.write(file, code.getBytes(StandardCharsets.UTF_8));
+        return file.toFile();
+    }
+
+    static void compile(List<File> sources, Path classes) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("Benchmarks must run on a JDK.");
+        }
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            List<String> options = Arrays.asList("-d", classes.toString(), "-classpath", System.getProperty("java.class.path"), "-processor",
+                    "org.yxw.processor.ComponentIndexProcessor", "-nowarn");
+            Boolean ok = compiler.getTask(null, fileManager, null, options, null, fileManager.getJavaFileObjectsFromFiles(sources)).call();
+            if (!Boolean.TRUE.equals(ok)) {
+                throw new IllegalStateException("Compile synthetic application failed.");
+            }
+        }
+    }
+
+    static void writeYaml(Path file, int keys) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("bench:\n");
+            for (int i = 0; i < keys; i++) {
+                if (i % CLASSES_PER_PACKAGE == 0) {
+                    writer.write("  group" + (i / CLASSES_PER_PACKAGE) + ":\n");
+                }
+                writer.write("    key" + i + ": value-" + i + "\n");
+            }
+        }
+    }
+
+    static URL toURL(Path path) {
+        try {
+            return path.toUri().toURL();
+        } catch (MalformedURLException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package org.yxw.context;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.yxw.benchmark.SyntheticApplication;
+import org.yxw.io.PropertyResolver;
+import org.yxw.utils.ClassUtils;
+
+import java.net.URLClassLoader;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 启动context以及扫描、创建BeanDefinition两个阶段。放在org.yxw.context中以便调用protected的scanForClassNames()。
+ *
+ * startup()是稳定状态的启动时间，类已经加载且静态缓存已经填充；coldStartup()每次调用使用新的ClassLoader并清除静态缓存，
+ * 更接近进程第一次启动。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ContextStartupBenchmark {
+
+    @Param({ "100", "1000", "10000" })
+    int components;
+
+    // 使用编译期生成的组件索引或扫描classpath
+    @Param({ "true", "false" })
+    boolean componentIndex;
+
+    SyntheticApplication app;
+    Class<?> configClass;
+    PropertyResolver propertyResolver;
+    AnnotationConfigApplicationContext context;
+    Set<String> classNames;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        this.app = SyntheticApplication.generate(this.components);
+        this.configClass = this.app.getConfigClass();
+        Properties props = SyntheticApplication.createProperties();
+        props.setProperty(AnnotationConfigApplicationContext.COMPONENT_INDEX_PROPERTY, String.valueOf(this.componentIndex));
+        this.propertyResolver = new PropertyResolver(props);
+        useApplicationClassLoader();
+        this.context = new AnnotationConfigApplicationContext(this.configClass, this.propertyResolver);
+        this.classNames = this.context.scanForClassNames(this.configClass);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        this.context.close();
+        this.app.close();
+    }
+
+    @Benchmark
+    public int startup() {
+        useApplicationClassLoader();
+        try (AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext(this.configClass, this.propertyResolver)) {
+            return ctx.beans.size();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 20)
+    public int coldStartup(ColdStart cold) throws Exception {
+        Thread.currentThread().setContextClassLoader(cold.classLoader);
+        try (AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext(cold.configClass, this.propertyResolver)) {
+            return ctx.beans.size();
+        }
+    }
+
+    @Benchmark
+    public Set<String> scanForClassNames() {
+        useApplicationClassLoader();
+        return this.context.scanForClassNames(this.configClass);
+    }
+
+    @Benchmark
+    public Map<String, BeanDefinition> createBeanDefinitions() {
+        useApplicationClassLoader();
+        return this.context.createBeanDefinitions(this.classNames);
+    }
+
+    /**
+     * 每次调用前创建新的ClassLoader，并清除以Class为key的静态缓存（注解、注入计划和生成的工厂）。
+     * Invoker由BeanDefinition持有，没有静态缓存
+     */
+    @State(Scope.Thread)
+    public static class ColdStart {
+
+        URLClassLoader classLoader;
+        Class<?> configClass;
+
+        @Setup(Level.Invocation)
+        public void setup(ContextStartupBenchmark benchmark) throws Exception {
+            ClassUtils.clearCache();
+            InjectionPlan.clearCache();
+            GeneratedFactory.clearCache();
+            this.classLoader = benchmark.app.newClassLoader();
+            this.configClass = Class.forName(SyntheticApplication.CONFIG_CLASS, true, this.classLoader);
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown() throws Exception {
+            this.classLoader.close();
+        }
+    }
+
+    /**
+     * JMH可能在与@Setup不同的线程中执行基准测试，每次调用前设置
+     */
+    void useApplicationClassLoader() {
+        Thread.currentThread().setContextClassLoader(this.app.getClassLoader());
+    }
+}
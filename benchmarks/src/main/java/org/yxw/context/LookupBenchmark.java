@@ -0,0 +1,76 @@
+package org.yxw.context;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.yxw.annotation.Component;
+import org.yxw.benchmark.SyntheticApplication;
+import org.yxw.io.PropertyResolver;
+import org.yxw.utils.ClassUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 启动完成后按类型查找BeanDefinition，以及查找注解，每次调用依次使用下一个组件类型。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class LookupBenchmark {
+
+    @Param({ "100", "1000", "10000" })
+    int components;
+
+    SyntheticApplication app;
+    AnnotationConfigApplicationContext context;
+    Class<?>[] types;
+    int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        this.app = SyntheticApplication.generate(this.components);
+        Thread.currentThread().setContextClassLoader(this.app.getClassLoader());
+        this.context = new AnnotationConfigApplicationContext(this.app.getConfigClass(), new PropertyResolver(SyntheticApplication.createProperties()));
+        List<String> names = this.app.getComponentClassNames();
+        this.types = new Class<?>[names.size()];
+        for (int i = 0; i < this.types.length; i++) {
+            this.types[i] = this.app.loadClass(names.get(i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        this.context.close();
+        this.app.close();
+    }
+
+    Class<?> nextType() {
+        int n = this.next;
+        this.next = n + 1 == this.types.length ? 0 : n + 1;
+        return this.types[n];
+    }
+
+    @Benchmark
+    public BeanDefinition findBeanDefinitionByType() {
+        return this.context.findBeanDefinition(nextType());
+    }
+
+    @Benchmark
+    public Component findAnnotation() {
+        return ClassUtils.findAnnotation(nextType(), Component.class);
+    }
+}
@@ -0,0 +1,19 @@
+package org.yxw.annotation;
+
+import java.lang.annotation.*;
+
+@Target({ElementType.FIELD, ElementType.METHOD, ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Autowired {
+
+    /**
+     * 是否必须注入，为false时找不到Bean则跳过
+     */
+    boolean value() default true;
+
+    /**
+     * 按名称注入，默认按类型注入
+     */
+    String name() default "";
+}
@@ -0,0 +1,21 @@
+package org.yxw.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 把prefix下的所有属性一次绑定到Bean的setter或字段，例如prefix为"jdbc"时，jdbc.max-pool-size绑定到maxPoolSize。
+ *
+ * 可以标注在@Component类或@Bean方法上，绑定在Bean创建后、init方法调用前进行。
+ */
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ConfigurationProperties {
+
+    String prefix();
+
+    /**
+     * 是否忽略无法绑定的属性
+     */
+    boolean ignoreUnknownFields() default true;
+}
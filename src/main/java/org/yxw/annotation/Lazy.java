@@ -0,0 +1,16 @@
+package org.yxw.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 延迟创建Bean，直到第一次通过getBean()获取或被其他非延迟Bean依赖时才创建。
+ *
+ * 可以标注在@Component类或@Bean方法上，@Lazy(false)可以覆盖容器的默认延迟设置。
+ */
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Lazy {
+
+    boolean value() default true;
+}
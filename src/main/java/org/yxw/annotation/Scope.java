@@ -0,0 +1,31 @@
+package org.yxw.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * Bean的作用域，可以标注在@Component类或@Bean方法上，默认为singleton。
+ *
+ * prototype每次获取时创建新实例，thread在每个线程中创建一个实例，其他名称需要通过
+ * AnnotationConfigApplicationContext.registerScope()注册自定义作用域。非singleton的Bean不会在启动时创建。
+ */
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Scope {
+
+    String SINGLETON = "singleton";
+    String PROTOTYPE = "prototype";
+    String THREAD = "thread";
+
+    String value() default SINGLETON;
+
+    /**
+     * prototype Bean的对象池容量，大于0时通过releaseBean()归还的实例会被后续的获取复用，默认不使用对象池
+     */
+    int poolSize() default 0;
+
+    /**
+     * 实例归还到对象池时调用的无参数方法，用于清除状态
+     */
+    String resetMethod() default "";
+}
@@ -1,6 +1,5 @@
 package org.yxw.annotation;
 
-import javax.xml.bind.Element;
 import java.lang.annotation.*;
 
 @Target({ElementType.FIELD, ElementType.METHOD, ElementType.PARAMETER})
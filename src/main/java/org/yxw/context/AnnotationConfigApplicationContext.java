@@ -7,49 +7,224 @@ import jakarta.annotation.Priority;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.yxw.annotation.*;
+import org.yxw.context.InjectionPlan.Dependency;
+import org.yxw.context.InjectionPlan.InjectionMember;
 import org.yxw.exception.BeanCreationException;
 import org.yxw.exception.BeanDefinitionException;
 import org.yxw.exception.BeanNotOfRequiredTypeException;
+import org.yxw.exception.NoSuchBeanDefinitionException;
 import org.yxw.exception.NoUniqueBeanDefinitionException;
+import org.yxw.exception.UnsatisfiedDependencyException;
+import org.yxw.io.JarFileCache;
 import org.yxw.io.PropertyResolver;
 import org.yxw.io.ResourceResolver;
+import org.yxw.utils.ClassPathUtils;
 import org.yxw.utils.ClassUtils;
 
+import java.io.IOException;
+import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 
-public class AnnotationConfigApplicationContext {
+public class AnnotationConfigApplicationContext implements AutoCloseable {
+
+    /**
+     * 是否并行扫描@ComponentScan的package，默认false
+     */
+    public static final String PARALLEL_SCAN_PROPERTY = "summer.context.parallel-scan";
+    /**
+     * 并行扫描的线程数，默认为CPU核数
+     */
+    public static final String SCAN_PARALLELISM_PROPERTY = "summer.context.scan-parallelism";
+    /**
+     * 是否使用编译期生成的组件索引META-INF/summer.components，默认true，索引不存在时回退到扫描
+     */
+    public static final String COMPONENT_INDEX_PROPERTY = "summer.context.component-index";
+    /**
+     * 扫描jar的方式：filesystem(默认)使用jar FileSystem遍历目录，zipfile只读取一次中央目录并缓存entry名称
+     */
+    public static final String JAR_SCAN_MODE_PROPERTY = "summer.context.jar-scan-mode";
+    /**
+     * 并行创建Bean的线程数，默认为CPU核数，设置为1时在当前线程按拓扑顺序创建
+     */
+    public static final String CREATE_PARALLELISM_PROPERTY = "summer.context.create-parallelism";
+    /**
+     * 是否默认延迟创建所有Bean，默认false，单个Bean可以用@Lazy或@Lazy(false)覆盖
+     */
+    public static final String LAZY_INIT_PROPERTY = "summer.context.lazy-init";
+    /**
+     * BeanDefinition快照文件的路径，默认不使用快照，classpath没有变化时不再扫描
+     */
+    public static final String AOT_SNAPSHOT_PROPERTY = "summer.context.aot-snapshot";
+
+    static final Object[] EMPTY_ARGS = new Object[0];
+
+    // 当前线程正在创建的非singleton的Bean，用于检查字段和方法注入的循环依赖
+    static final ThreadLocal<Set<BeanDefinition>> SCOPED_CREATING = ThreadLocal.withInitial(HashSet::new);
 
     Logger logger = LoggerFactory.getLogger(getClass());
 
     protected final PropertyResolver propertyResolver;
+    // 创建后不再修改，多线程读取不需要加锁
     protected final Map<String, BeanDefinition> beans;
+    // 按Type索引的BeanDefinition
+    protected final BeanDefinitionRegistry registry;
+    final ConfigurationPropertiesBinder configurationPropertiesBinder;
+    // findBeanDefinition()的查找结果，context创建完成后冻结
+    final BeanResolutionCache resolutionCache = new BeanResolutionCache();
+    // 扫描期间打开的jar，扫描完成或失败后立即释放
+    protected final JarFileCache.Session jarSession;
+    // 没有标注@Lazy的Bean是否延迟创建
+    protected final boolean lazyInit;
+    // 默认为StartupRecorder.NONE
+    protected final StartupRecorder startupRecorder;
+    // 按需创建延迟的singleton，每个Bean单独等待，没有全局锁
+    final SingletonRegistry singletons = new SingletonRegistry();
+    // 作用域名称 -> 自定义作用域，prototype和singleton不在其中
+    final Map<String, BeanScope> scopes = new ConcurrentHashMap<>();
+    // 作用域名称 -> 创建的实例数量
+    final Map<String, LongAdder> creationCounts = new ConcurrentHashMap<>();
+    // 启动时创建阶段被依赖的非singleton实例，此时其他Bean可能还没有创建，等到注入阶段再注入和调用init方法
+    volatile Queue<Map.Entry<BeanDefinition, Object>> earlyScopedInstances;
+    // 启动完成后按需创建的Bean不再记录context.bean阶段，否则prototype等实例会让记录的阶段无限增长
+    volatile boolean started;
+    // close()只执行一次
+    final AtomicBoolean closed = new AtomicBoolean();
 
     public AnnotationConfigApplicationContext(Class<?> configClass, PropertyResolver propertyResolver) {
+        this(configClass, propertyResolver, StartupRecorder.NONE);
+    }
+
+    /**
+     * @param startupRecorder 记录启动的各个阶段，启动完成后可以查询或导出
+     */
+    public AnnotationConfigApplicationContext(Class<?> configClass, PropertyResolver propertyResolver, StartupRecorder startupRecorder) {
         this.propertyResolver = propertyResolver;
+        this.startupRecorder = startupRecorder;
+        StartupStep startup = startupRecorder.start("context.startup").tag("configClass", configClass.getName());
+        this.configurationPropertiesBinder = new ConfigurationPropertiesBinder(propertyResolver);
+        this.jarSession = JarFileCache.getInstance().openSession("zipfile".equals(propertyResolver.getProperty(JAR_SCAN_MODE_PROPERTY, "filesystem")));
+        this.lazyInit = propertyResolver.getBoolean(LAZY_INIT_PROPERTY, false);
+        this.scopes.put(Scope.THREAD, new ThreadScope());
+
+        // 扫描并创建Bean的定义，或者从快照读取
+        try {
+            this.beans = Collections.unmodifiableMap(loadOrCreateBeanDefinitions(configClass));
+        } finally {
+            releaseJarFiles();
+        }
+        this.registry = new BeanDefinitionRegistry(this.beans.values());
+
+        // 按依赖关系创建非延迟的Bean实例
+        StartupStep step = startupRecorder.start("context.create");
+        this.earlyScopedInstances = new ConcurrentLinkedQueue<>();
+        List<BeanDefinition> eagerDefs = createBeans(step);
+        Queue<Map.Entry<BeanDefinition, Object>> scopedInstances = this.earlyScopedInstances;
+        this.earlyScopedInstances = null;
+        step.end();
+
+        // 注入@Autowired字段和方法
+        step = startupRecorder.start("context.inject");
+        scopedInstances.forEach(entry -> injectBean(entry.getKey(), entry.getValue()));
+        injectBeans(eagerDefs);
+        step.end();
+
+        // 调用init方法，被依赖的非singleton实例先初始化
+        step = startupRecorder.start("context.init");
+        scopedInstances.forEach(entry -> callInitMethod(entry.getKey(), entry.getValue()));
+        initBeans(eagerDefs);
+        step.end();
+
+        // BeanDefinition不再变化，之后的查找不再需要加锁:
+        this.resolutionCache.freeze();
+        this.started = true;
+        startup.end();
+    }
+
+    public StartupRecorder getStartupRecorder() {
+        return startupRecorder;
+    }
+
+    /**
+     * 设置了summer.context.aot-snapshot时，classpath没有变化则从快照读取BeanDefinition，否则扫描后写入快照
+     */
+    Map<String, BeanDefinition> loadOrCreateBeanDefinitions(Class<?> configClass) {
+        String snapshot = this.propertyResolver.getProperty(AOT_SNAPSHOT_PROPERTY);
+        if (snapshot == null || snapshot.isEmpty()) {
+            return scanAndCreateBeanDefinitions(configClass);
+        }
+        Path file = Paths.get(snapshot);
+        ClassLoader classLoader = ClassPathUtils.getContextClassLoader();
+        StartupStep step = this.startupRecorder.start("context.snapshot").tag("file", snapshot);
+        long fingerprint;
+        try {
+            fingerprint = DefinitionSnapshot.fingerprint(classLoader, file, configClass.getName(), String.valueOf(this.lazyInit));
+        } catch (IOException e) {
+            logger.warn("Cannot compute classpath fingerprint, definition snapshot is disabled.", e);
+            step.end();
+            return scanAndCreateBeanDefinitions(configClass);
+        }
+        Map<String, BeanDefinition> defs = DefinitionSnapshot.load(file, fingerprint, classLoader);
+        step.end();
+        if (defs != null) {
+            return defs;
+        }
+        defs = scanAndCreateBeanDefinitions(configClass);
+        try {
+            DefinitionSnapshot.write(file, fingerprint, defs.values());
+        } catch (IOException e) {
+            logger.warn("Cannot write definition snapshot: " + file, e);
+        }
+        return defs;
+    }
 
+    Map<String, BeanDefinition> scanAndCreateBeanDefinitions(Class<?> configClass) {
         // 扫描获取所有Bean的Class类型
+        StartupStep step = this.startupRecorder.start("context.scan");
         final Set<String> beanClassNames = scanForClassNames(configClass);
+        step.end();
 
         // 创建Bean的定义
-        this.beans = createBeanDefinitions(beanClassNames);
+        step = this.startupRecorder.start("context.definitions");
+        Map<String, BeanDefinition> defs = createBeanDefinitions(beanClassNames);
+        step.end();
+        return defs;
     }
 
     public Map<String, BeanDefinition> createBeanDefinitions(Set<String> beanClassNames) {
         Map<String, BeanDefinition> beanDefinitionMap = new HashMap<>();
+        ClassLoader classLoader = ClassPathUtils.getContextClassLoader();
+        ComponentCandidateFilter candidateFilter = new ComponentCandidateFilter(classLoader);
         for (String beanClassName : beanClassNames) {
+            // 先读取.class文件判断是否可能是组件，避免加载无关的类:
+            if (!candidateFilter.isCandidate(beanClassName)) {
+                logger.debug("skip non-component class: {}", beanClassName);
+                continue;
+            }
+            StartupStep step = this.startupRecorder.start("context.definition").tag("class", beanClassName);
             // 获取Class：
             Class<?> clazz = null;
             try {
-                clazz = Class.forName(beanClassName);
+                clazz = Class.forName(beanClassName, true, classLoader);
             } catch (ClassNotFoundException e) {
                 throw new BeanCreationException(e);
             }
             if (clazz.isAnnotation() || clazz.isEnum() || clazz.isInterface()) {
+                step.end();
                 continue;
             }
 
@@ -68,6 +243,9 @@ public class AnnotationConfigApplicationContext {
                 String beanName = ClassUtils.getBeanName(clazz);
                 BeanDefinition def = new BeanDefinition(beanName, clazz, getSuitableConstructor(clazz), getOrder(clazz), clazz.isAnnotationPresent(Primary.class), null, null,
                         ClassUtils.findAnnotationMethod(clazz, PostConstruct.class), ClassUtils.findAnnotationMethod(clazz, PreDestroy.class));
+                def.setLazy(isLazy(clazz));
+                def.setScope(clazz.getAnnotation(Scope.class));
+                def.setConfigurationProperties(clazz.getAnnotation(ConfigurationProperties.class));
                 addBeanDefinitions(beanDefinitionMap, def);
                 logger.debug("define bean: {}", def);
 
@@ -76,10 +254,368 @@ public class AnnotationConfigApplicationContext {
                     scanFactoryMethods(beanName, clazz, beanDefinitionMap);
                 }
             }
+            step.end();
         }
         return beanDefinitionMap;
     }
 
+    /**
+     * 根据构造方法和工厂方法的参数建立依赖图，按拓扑顺序创建所有非延迟的singleton Bean，互不依赖的Bean并行创建。
+     *
+     * 非延迟Bean直接或间接依赖的延迟Bean也会一起创建，返回所有已创建的Bean。非singleton的Bean不在启动时创建，
+     * 被依赖时在创建依赖它的Bean时创建，因此它依赖的singleton需要先创建
+     *
+     * @param step 并行创建时工作线程中的context.bean阶段以step为父阶段
+     */
+    List<BeanDefinition> createBeans(StartupStep step) {
+        List<BeanDefinition> defs = this.beans.values().stream().sorted().collect(Collectors.toList());
+        Map<BeanDefinition, List<BeanDefinition>> dependencies = new HashMap<>();
+        for (BeanDefinition def : defs) {
+            dependencies.put(def, resolveDependencies(def));
+        }
+        int parallelism = this.propertyResolver.getInt(CREATE_PARALLELISM_PROPERTY, Runtime.getRuntime().availableProcessors());
+        BeanCreationScheduler scheduler = new BeanCreationScheduler(parallelism);
+        // 延迟创建的Bean也要检查，保证按需创建时不会出现循环依赖:
+        scheduler.checkCycles(defs, dependencies);
+        Set<BeanDefinition> eagerDefs = new TreeSet<>();
+        Set<BeanDefinition> visited = new HashSet<>();
+        Deque<BeanDefinition> queue = defs.stream().filter(def -> def.isSingleton() && !def.isLazy()).collect(Collectors.toCollection(ArrayDeque::new));
+        while (!queue.isEmpty()) {
+            BeanDefinition def = queue.poll();
+            if (visited.add(def)) {
+                if (def.isSingleton()) {
+                    eagerDefs.add(def);
+                }
+                queue.addAll(dependencies.get(def));
+            }
+        }
+        // 依赖非singleton的Bean时，改为依赖它间接依赖的singleton:
+        Map<BeanDefinition, List<BeanDefinition>> singletonDependencies = new HashMap<>();
+        for (BeanDefinition def : eagerDefs) {
+            List<BeanDefinition> list = new ArrayList<>();
+            collectSingletonDependencies(dependencies.get(def), dependencies, list);
+            singletonDependencies.put(def, list);
+        }
+        logger.debug("create {} of {} beans at startup.", eagerDefs.size(), defs.size());
+        scheduler.schedule(eagerDefs, singletonDependencies, def -> this.startupRecorder.runInStep(step, () -> createBeanAsEarlySingleton(def)));
+        return new ArrayList<>(eagerDefs);
+    }
+
+    void collectSingletonDependencies(List<BeanDefinition> defs, Map<BeanDefinition, List<BeanDefinition>> dependencies, List<BeanDefinition> result) {
+        for (BeanDefinition def : defs) {
+            if (def.isSingleton()) {
+                result.add(def);
+            } else {
+                // 已经检查过循环依赖，递归一定会结束:
+                collectSingletonDependencies(dependencies.get(def), dependencies, result);
+            }
+        }
+    }
+
+    boolean isLazy(AnnotatedElement element) {
+        Lazy lazy = element.getAnnotation(Lazy.class);
+        return lazy == null ? this.lazyInit : lazy.value();
+    }
+
+    /**
+     * 查找创建Bean时依赖的其他Bean：工厂方法所在的@Configuration，以及构造方法或工厂方法中没有标注@Value的参数。
+     * 通过字段和方法注入的Bean不影响创建顺序
+     */
+    List<BeanDefinition> resolveDependencies(BeanDefinition def) {
+        List<BeanDefinition> dependencies = new ArrayList<>();
+        if (def.getFactoryName() != null) {
+            BeanDefinition factoryDef = findBeanDefinition(def.getFactoryName());
+            if (factoryDef == null) {
+                throw new UnsatisfiedDependencyException(String.format("Missing factory bean '%s' when create bean '%s'.", def.getFactoryName(), def.getName()));
+            }
+            dependencies.add(factoryDef);
+        }
+        for (Dependency dep : InjectionPlan.parameters(getCreateExecutable(def))) {
+            if (!dep.isValue()) {
+                BeanDefinition dependsOn = findDependency(def, dep);
+                if (dependsOn != null) {
+                    dependencies.add(dependsOn);
+                }
+            }
+        }
+        return dependencies;
+    }
+
+    /**
+     * 按名称或类型查找依赖的Bean，非必须的依赖不存在时返回null
+     */
+    @Nullable
+    BeanDefinition findDependency(BeanDefinition def, Dependency dep) {
+        BeanDefinition dependsOn = dep.name == null ? findBeanDefinition(dep.type) : findBeanDefinition(dep.name, dep.type);
+        if (dependsOn == null && dep.required) {
+            throw new UnsatisfiedDependencyException(String.format("Missing autowired bean with type '%s' when create bean '%s': %s.", dep.type.getName(),
+                    def.getName(), def.getBeanClass().getName()));
+        }
+        return dependsOn;
+    }
+
+    /**
+     * 返回配置值或依赖的Bean实例，非必须的Bean不存在时返回null
+     */
+    @Nullable
+    Object resolveDependency(BeanDefinition def, Dependency dep) {
+        if (dep.isValue()) {
+            // 按泛型类型转换，支持List<Integer>这样的参数:
+            return this.propertyResolver.convert(this.propertyResolver.getRequiredProperty(dep.key), dep.genericType);
+        }
+        BeanDefinition dependsOn = findDependency(def, dep);
+        return dependsOn == null ? null : getOrCreateInstance(dependsOn);
+    }
+
+    Executable getCreateExecutable(BeanDefinition def) {
+        return def.getFactoryMethod() != null ? def.getFactoryMethod() : def.getConstructor();
+    }
+
+    /**
+     * 调用构造方法或工厂方法创建Bean实例，调用前所有依赖的Bean都已创建完成
+     */
+    public Object createBeanAsEarlySingleton(BeanDefinition def) {
+        logger.debug("Try create bean '{}' as early singleton: {}", def.getName(), def.getBeanClass().getName());
+        Object instance = createBeanInstance(def);
+        def.setInstance(instance);
+        return instance;
+    }
+
+    /**
+     * 获取Bean实例。延迟创建的Bean在第一次获取时创建并调用init方法，多个线程同时获取时只会创建一次，
+     * 其他线程只能看到init方法调用完成后的实例。已创建的实例读取时不加锁
+     */
+    Object getOrCreateInstance(BeanDefinition def) {
+        if (!def.isSingleton()) {
+            return getScopedInstance(def);
+        }
+        Object instance = def.getInstance();
+        if (instance != null || !def.isLazy()) {
+            return def.getRequiredInstance();
+        }
+        return this.singletons.getOrCreate(def, () -> {
+            logger.debug("Create lazy bean '{}': {}", def.getName(), def.getBeanClass().getName());
+            Object created = createBeanInstance(def);
+            // 注入字段时允许循环引用当前Bean:
+            this.singletons.publishEarly(def, created);
+            injectBean(def, created);
+            callInitMethod(def, created);
+            return created;
+        });
+    }
+
+    /**
+     * 获取非singleton的Bean：prototype优先从对象池中取出，否则创建新实例，其他作用域由注册的BeanScope决定是否创建
+     */
+    Object getScopedInstance(BeanDefinition def) {
+        if (Scope.PROTOTYPE.equals(def.getScope())) {
+            InstancePool pool = def.getPool();
+            Object instance = pool == null ? null : pool.poll();
+            return instance != null ? instance : createScopedInstance(def);
+        }
+        BeanScope scope = this.scopes.get(def.getScope());
+        if (scope == null) {
+            throw new BeanCreationException(String.format("No scope registered for scope name '%s' of bean '%s'.", def.getScope(), def.getName()));
+        }
+        return scope.get(def.getName(), () -> createScopedInstance(def));
+    }
+
+    Object createScopedInstance(BeanDefinition def) {
+        Set<BeanDefinition> creating = SCOPED_CREATING.get();
+        if (!creating.add(def)) {
+            throw new UnsatisfiedDependencyException(String.format("Circular dependency detected when create %s bean '%s': %s.", def.getScope(),
+                    def.getName(), def.getBeanClass().getName()));
+        }
+        try {
+            logger.debug("Create {} bean '{}': {}", def.getScope(), def.getName(), def.getBeanClass().getName());
+            Object instance = createBeanInstance(def);
+            Queue<Map.Entry<BeanDefinition, Object>> early = this.earlyScopedInstances;
+            if (early != null) {
+                early.add(new AbstractMap.SimpleImmutableEntry<>(def, instance));
+            } else {
+                injectBean(def, instance);
+                callInitMethod(def, instance);
+            }
+            return instance;
+        } finally {
+            creating.remove(def);
+        }
+    }
+
+    /**
+     * 注册自定义作用域，同名的作用域会被替换，singleton和prototype不能注册
+     */
+    public void registerScope(String name, BeanScope scope) {
+        if (Scope.SINGLETON.equals(name) || Scope.PROTOTYPE.equals(name)) {
+            throw new IllegalArgumentException("Cannot replace built-in scope: " + name);
+        }
+        this.scopes.put(name, Objects.requireNonNull(scope, "Scope is null."));
+    }
+
+    /**
+     * 归还prototype Bean的实例：有对象池时调用reset方法后放入对象池，没有对象池、池已满或reset失败时调用destroy方法。
+     *
+     * 实例必须是该Bean的类型，同一个实例在再次获取之前只能归还一次
+     */
+    public void releaseBean(String name, Object bean) {
+        BeanDefinition def = this.beans.get(name);
+        if (def == null) {
+            throw new NoSuchBeanDefinitionException(String.format("No bean defined with name '%s'.", name));
+        }
+        if (!Scope.PROTOTYPE.equals(def.getScope())) {
+            throw new IllegalArgumentException(String.format("Cannot release bean '%s' with scope '%s'.", name, def.getScope()));
+        }
+        if (bean == null) {
+            throw new IllegalArgumentException(String.format("Cannot release null instance of bean '%s'.", name));
+        }
+        if (!def.getBeanClass().isInstance(bean)) {
+            throw new BeanNotOfRequiredTypeException(String.format("Cannot release instance of type '%s' to bean '%s' with type '%s'.",
+                    bean.getClass().getName(), name, def.getBeanClass().getName()));
+        }
+        InstancePool pool = def.getPool();
+        if (pool != null) {
+            if (pool.contains(bean)) {
+                throw new IllegalArgumentException(String.format("Instance of bean '%s' is already released.", name));
+            }
+            boolean reset = false;
+            try {
+                callMethod(bean, def.getResetInvoker(bean.getClass()));
+                reset = true;
+            } catch (RuntimeException e) {
+                logger.warn("Exception when reset bean '" + name + "', discard it.", e);
+            }
+            if (reset && pool.offer(bean)) {
+                return;
+            }
+        }
+        callDestroyMethod(def, bean);
+    }
+
+    /**
+     * 从自定义作用域中移除当前的实例并调用destroy方法，例如请求结束或线程结束时，不存在时忽略
+     */
+    public void destroyScopedBean(String name) {
+        BeanDefinition def = this.beans.get(name);
+        if (def == null) {
+            throw new NoSuchBeanDefinitionException(String.format("No bean defined with name '%s'.", name));
+        }
+        BeanScope scope = this.scopes.get(def.getScope());
+        Object instance = scope == null ? null : scope.remove(name);
+        if (instance != null) {
+            callDestroyMethod(def, instance);
+        }
+    }
+
+    /**
+     * 按作用域统计已创建的实例数量，例如{prototype=12, singleton=30}，对象池复用的实例不计入
+     */
+    public Map<String, Long> getCreationCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        this.creationCounts.forEach((scope, count) -> counts.put(scope, count.sum()));
+        return counts;
+    }
+
+    Object createBeanInstance(BeanDefinition def) {
+        StartupStep step = this.started ? StartupStep.NONE : this.startupRecorder.start("context.bean").tag("name", def.getName());
+        try {
+            return doCreateBeanInstance(def);
+        } finally {
+            step.end();
+        }
+    }
+
+    Object doCreateBeanInstance(BeanDefinition def) {
+        this.creationCounts.computeIfAbsent(def.getScope(), k -> new LongAdder()).increment();
+        Dependency[] deps = InjectionPlan.parameters(getCreateExecutable(def));
+        Object[] args = new Object[deps.length];
+        for (int i = 0; i < deps.length; i++) {
+            args[i] = resolveDependency(def, deps[i]);
+        }
+        Object instance;
+        try {
+            Object configInstance = def.getFactoryName() == null ? null : getBean(def.getFactoryName());
+            instance = def.getCreateInvoker().invoke(configInstance, args);
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new BeanCreationException(String.format("Exception when create bean '%s': %s", def.getName(), def.getBeanClass().getName()), e);
+        }
+        if (instance == null) {
+            throw new BeanCreationException(String.format("Factory method of bean '%s' returned null.", def.getName()));
+        }
+        // 配置值不依赖其他Bean，创建后立即注入，@Configuration的@Bean方法可以使用:
+        injectMembers(def, instance, InjectionPlan.of(instance.getClass()).valueMembers);
+        ConfigurationProperties properties = def.getConfigurationProperties();
+        if (properties != null) {
+            this.configurationPropertiesBinder.bind(properties.prefix(), instance, properties.ignoreUnknownFields());
+        }
+        return instance;
+    }
+
+    /**
+     * 按@Order顺序注入启动时创建的Bean的@Autowired字段和方法，此时所有非延迟的Bean都已创建，字段之间可以循环引用
+     */
+    void injectBeans(List<BeanDefinition> defs) {
+        defs.stream().sorted().forEach(def -> {
+            injectBean(def, def.getRequiredInstance());
+        });
+    }
+
+    void injectBean(BeanDefinition def, Object instance) {
+        injectMembers(def, instance, InjectionPlan.of(instance.getClass()).beanMembers);
+    }
+
+    void injectMembers(BeanDefinition def, Object instance, List<InjectionMember> members) {
+        for (InjectionMember member : members) {
+            Object[] args = new Object[member.dependencies.length];
+            boolean skip = false;
+            for (int i = 0; i < args.length; i++) {
+                args[i] = resolveDependency(def, member.dependencies[i]);
+                // 非必须的Bean不存在时不调用:
+                skip = skip || args[i] == null && !member.dependencies[i].isValue();
+            }
+            if (skip) {
+                continue;
+            }
+            try {
+                member.invoker.invoke(instance, args);
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new BeanCreationException(String.format("Exception when inject %s of bean '%s'.", member.description, def.getName()), e);
+            }
+        }
+    }
+
+    /**
+     * 按@Order顺序调用启动时创建的Bean的init方法
+     */
+    void initBeans(List<BeanDefinition> defs) {
+        defs.stream().sorted().forEach(def -> {
+            callInitMethod(def, def.getRequiredInstance());
+        });
+    }
+
+    void callInitMethod(BeanDefinition def, Object instance) {
+        callMethod(instance, def.getInitInvoker(instance.getClass()));
+    }
+
+    void callDestroyMethod(BeanDefinition def, Object instance) {
+        callMethod(instance, def.getDestroyInvoker(instance.getClass()));
+    }
+
+    void callMethod(Object beanInstance, Invoker invoker) {
+        if (invoker != null) {
+            try {
+                invoker.invoke(beanInstance, EMPTY_ARGS);
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new BeanCreationException(e);
+            }
+        }
+    }
+
     public Constructor<?> getSuitableConstructor(Class<?> clazz) {
         Constructor<?>[] constructors = clazz.getConstructors();
         if (constructors.length == 0) {
@@ -135,6 +671,9 @@ public class AnnotationConfigApplicationContext {
                         // destroyMethod
                         bean.destroyMethod().isEmpty() ? null : bean.destroyMethod(),
                         null, null);
+                def.setLazy(isLazy(method));
+                def.setScope(method.getAnnotation(Scope.class));
+                def.setConfigurationProperties(method.getAnnotation(ConfigurationProperties.class));
                 addBeanDefinitions(beanDefinitionMap, def);
                 logger.debug("define bean: {}", def);
             }
@@ -178,22 +717,49 @@ public class AnnotationConfigApplicationContext {
         logger.info("component scan in packages: {}", Arrays.toString(scanPackages));
 
         Set<String> classNameSet = new HashSet<>();
-        for (String pkg : scanPackages) {
-            logger.debug("scan package: {}", pkg);
-            ResourceResolver rr = new ResourceResolver(pkg);
-            List<String> classList = rr.scan(res -> {
-                String name = res.getName();
-                if (name.endsWith(".class")){
-                    return name.substring(0, name.length() - 6).replace("/", ".").replace("\\", ".");
+        ComponentIndex index = this.propertyResolver.getBoolean(COMPONENT_INDEX_PROPERTY, true) ? ComponentIndex.load() : null;
+        Predicate<String> rootFilter = root -> true;
+        if (index != null) {
+            logger.debug("use component index with {} components.", index.size());
+            for (String pkg : scanPackages) {
+                List<String> classList = index.getCandidates(pkg);
+                if (logger.isDebugEnabled()) {
+                    classList.forEach((className) -> {
+                        logger.debug("class found by component index: {}", className);
+                    });
                 }
-                return null;
-            });
-            if (logger.isDebugEnabled()){
-                classList.forEach((className) -> {
-                    logger.debug("class found by component scan: {}", className);
-                });
+                classNameSet.addAll(classList);
+            }
+            // 没有索引文件的classpath根目录仍然需要扫描:
+            rootFilter = root -> {
+                if (index.isIndexed(root)) {
+                    return false;
+                }
+                logger.debug("scan classpath root without component index: {}", root);
+                return true;
+            };
+        }
+        final Predicate<String> filter = rootFilter;
+        if (this.propertyResolver.getBoolean(PARALLEL_SCAN_PROPERTY, false)) {
+            int parallelism = this.propertyResolver.getInt(SCAN_PARALLELISM_PROPERTY, Runtime.getRuntime().availableProcessors());
+            logger.debug("parallel component scan with parallelism: {}", parallelism);
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                // 每个package一个任务，package内部再按classpath根目录和子目录拆分
+                List<ForkJoinTask<List<String>>> tasks = new ArrayList<>();
+                for (String pkg : scanPackages) {
+                    tasks.add(pool.submit(() -> scanPackage(pkg, pool, filter)));
+                }
+                for (ForkJoinTask<List<String>> task : tasks) {
+                    classNameSet.addAll(task.join());
+                }
+            } finally {
+                pool.shutdown();
+            }
+        } else {
+            for (String pkg : scanPackages) {
+                classNameSet.addAll(scanPackage(pkg, null, filter));
             }
-            classNameSet.addAll(classList);
         }
 
         // 查找@Import(Xyz.class):
@@ -213,6 +779,24 @@ public class AnnotationConfigApplicationContext {
         return classNameSet;
     }
 
+    List<String> scanPackage(String pkg, @Nullable ForkJoinPool pool, Predicate<String> rootFilter) {
+        logger.debug("scan package: {}", pkg);
+        ResourceResolver rr = new ResourceResolver(pkg, pool, this.jarSession).setRootFilter(rootFilter);
+        List<String> classList = rr.scan(res -> {
+            String name = res.getName();
+            if (name.endsWith(".class")){
+                return name.substring(0, name.length() - 6).replace("/", ".").replace("\\", ".");
+            }
+            return null;
+        });
+        if (logger.isDebugEnabled()){
+            classList.forEach((className) -> {
+                logger.debug("class found by component scan: {}", className);
+            });
+        }
+        return classList;
+    }
+
     public void addBeanDefinitions(Map<String, BeanDefinition> dfs, BeanDefinition def) {
         if (dfs.put(def.getName(), def) != null) {
             throw new BeanDefinitionException("Duplicate bean name '" + def.getName() + "' is not allowed");
@@ -228,6 +812,10 @@ public class AnnotationConfigApplicationContext {
      */
     @Nullable
     public BeanDefinition findBeanDefinition(String name, Class<?> requiredType) {
+        return this.resolutionCache.resolve(name, requiredType, () -> doFindBeanDefinition(name, requiredType));
+    }
+
+    BeanDefinition doFindBeanDefinition(String name, Class<?> requiredType) {
         BeanDefinition def = beans.get(name);
         if (def == null) {
             return null;
@@ -240,11 +828,10 @@ public class AnnotationConfigApplicationContext {
     }
 
     /**
-     * 根据Type查找若干个BeanDefinition， 返回0个或多个
+     * 根据Type查找若干个BeanDefinition， 返回0个或多个，返回的List已按@Order排序且不可修改
      */
     public List<BeanDefinition> findBeanDefinitions(Class<?> type)  {
-        return this.beans.values().stream().filter(def-> type.isAssignableFrom(def.getBeanClass()))
-                .sorted().collect(Collectors.toList());
+        return this.registry.getByType(type);
     }
 
 
@@ -253,23 +840,7 @@ public class AnnotationConfigApplicationContext {
      */
     @Nullable
     public BeanDefinition findBeanDefinition(Class<?> type) {
-        List<BeanDefinition> defs = findBeanDefinitions(type);
-        if (defs.isEmpty()) {
-            return null;
-        }
-        if (defs.size() == 1) {
-            return defs.get(0);
-        }
-        // more than 1 beans, require @Primary:
-        List<BeanDefinition> primaryDefs = defs.stream().filter(def -> def.isPrimary()).collect(Collectors.toList());
-        if (primaryDefs.size() == 1) {
-            return primaryDefs.get(0);
-        }
-        if (primaryDefs.isEmpty()) {
-            throw new NoUniqueBeanDefinitionException(String.format("Multiple bean with type '%s' found, but no @Primary specified.", type.getName()));
-        } else {
-            throw new NoUniqueBeanDefinitionException(String.format("Multiple bean with type '%s' found, and multiple @Primary specified.", type.getName()));
-        }
+        return this.resolutionCache.resolve(type, () -> this.registry.getUnique(type));
     }
 
     /**
@@ -279,23 +850,96 @@ public class AnnotationConfigApplicationContext {
     public BeanDefinition findBeanDefinition(String name) {
         return this.beans.get(name);
     }
-}
-
-
-
-
-
-
-
-
-
-
-
-
 
+    public boolean containsBean(String name) {
+        return this.beans.containsKey(name);
+    }
 
+    /**
+     * 通过Name查找Bean，不存在时抛出NoSuchBeanDefinitionException
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getBean(String name) {
+        BeanDefinition def = this.beans.get(name);
+        if (def == null) {
+            throw new NoSuchBeanDefinitionException(String.format("No bean defined with name '%s'.", name));
+        }
+        return (T) getOrCreateInstance(def);
+    }
 
+    /**
+     * 通过Name和Type查找Bean，不存在抛出NoSuchBeanDefinitionException，存在但与Type不匹配抛出BeanNotOfRequiredTypeException
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getBean(String name, Class<T> requiredType) {
+        BeanDefinition def = findBeanDefinition(name, requiredType);
+        if (def == null) {
+            throw new NoSuchBeanDefinitionException(String.format("No bean defined with name '%s' and type '%s'.", name, requiredType.getName()));
+        }
+        return (T) getOrCreateInstance(def);
+    }
 
+    /**
+     * 通过Type查找Bean，不存在抛出NoSuchBeanDefinitionException，存在多个但缺少唯一@Primary标注抛出NoUniqueBeanDefinitionException
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getBean(Class<T> requiredType) {
+        BeanDefinition def = findBeanDefinition(requiredType);
+        if (def == null) {
+            throw new NoSuchBeanDefinitionException(String.format("No bean defined with type '%s'.", requiredType.getName()));
+        }
+        return (T) getOrCreateInstance(def);
+    }
 
+    /**
+     * 通过Type查找Beans
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> getBeans(Class<T> requiredType) {
+        return findBeanDefinitions(requiredType).stream().map(def -> (T) getOrCreateInstance(def)).collect(Collectors.toList());
+    }
 
+    /**
+     * 关闭容器，按与创建相反的顺序调用destroy方法，对象池和所有线程中thread作用域的实例也会被销毁，重复调用时忽略。
+     *
+     * prototype和自定义作用域的实例由使用者通过releaseBean()或destroyScopedBean()销毁
+     */
+    @Override
+    public void close() {
+        if (!this.closed.compareAndSet(false, true)) {
+            return;
+        }
+        logger.info("Closing {}...", this.getClass().getName());
+        BeanScope threadScope = this.scopes.get(Scope.THREAD);
+        Map<String, List<Object>> threadInstances = threadScope instanceof ThreadScope ? ((ThreadScope) threadScope).removeAll() : Collections.emptyMap();
+        List<BeanDefinition> defs = this.beans.values().stream().sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+        for (BeanDefinition def : defs) {
+            List<Object> instances;
+            if (def.getPool() != null) {
+                instances = def.getPool().drain();
+            } else if (threadInstances.containsKey(def.getName())) {
+                instances = threadInstances.get(def.getName());
+            } else {
+                instances = Collections.singletonList(def.getInstance());
+            }
+            for (Object instance : instances) {
+                if (instance != null) {
+                    try {
+                        callDestroyMethod(def, instance);
+                    } catch (RuntimeException e) {
+                        logger.warn("Exception when destroy bean '" + def.getName() + "'.", e);
+                    }
+                }
+            }
+        }
+        logger.info("{} closed.", this.getClass().getName());
+    }
 
+    void releaseJarFiles() {
+        try {
+            this.jarSession.close();
+        } catch (IOException e) {
+            logger.warn("Release jar files failed.", e);
+        }
+    }
+}
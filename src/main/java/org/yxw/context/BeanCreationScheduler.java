@@ -0,0 +1,208 @@
+package org.yxw.context;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yxw.exception.BeanCreationException;
+import org.yxw.exception.UnsatisfiedDependencyException;
+
+import java.util.*;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * 按依赖关系的拓扑顺序创建Bean：一个Bean的所有依赖创建完成后才会被调度，
+ * 互相没有依赖的Bean在线程池中并行创建，同时就绪的Bean按@Order和名称排序。
+ */
+class BeanCreationScheduler {
+
+    final Logger logger = LoggerFactory.getLogger(getClass());
+
+    final int parallelism;
+
+    BeanCreationScheduler(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * 检查所有Bean之间是否存在循环依赖，存在时抛出UnsatisfiedDependencyException
+     */
+    void checkCycles(Collection<BeanDefinition> defs, Map<BeanDefinition, List<BeanDefinition>> dependencies) {
+        new Graph(defs, dependencies).checkCycles();
+    }
+
+    /**
+     * 调用前需要先通过checkCycles()检查循环依赖。
+     *
+     * @param defs         需要创建的Bean
+     * @param dependencies 每个Bean依赖的Bean，不在defs中的依赖会被忽略
+     * @param creator      创建单个Bean，并行模式下会在工作线程中调用
+     */
+    void schedule(Collection<BeanDefinition> defs, Map<BeanDefinition, List<BeanDefinition>> dependencies, Consumer<BeanDefinition> creator) {
+        Graph graph = new Graph(defs, dependencies);
+        if (this.parallelism <= 1 || defs.size() <= 1) {
+            scheduleSerial(graph, creator);
+        } else {
+            scheduleParallel(graph, creator);
+        }
+    }
+
+    void scheduleSerial(Graph graph, Consumer<BeanDefinition> creator) {
+        PriorityQueue<BeanDefinition> ready = graph.initialReady();
+        while (!ready.isEmpty()) {
+            BeanDefinition def = ready.poll();
+            creator.accept(def);
+            graph.complete(def, ready);
+        }
+    }
+
+    void scheduleParallel(Graph graph, Consumer<BeanDefinition> creator) {
+        int threads = Math.min(this.parallelism, graph.size());
+        logger.debug("create {} beans with {} threads.", graph.size(), threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new CreatorThreadFactory());
+        try {
+            CompletionService<BeanDefinition> completionService = new ExecutorCompletionService<>(executor);
+            PriorityQueue<BeanDefinition> ready = graph.initialReady();
+            int running = 0;
+            while (!ready.isEmpty() || running > 0) {
+                while (!ready.isEmpty()) {
+                    BeanDefinition def = ready.poll();
+                    completionService.submit(() -> {
+                        creator.accept(def);
+                        return def;
+                    });
+                    running++;
+                }
+                Future<BeanDefinition> future = completionService.take();
+                running--;
+                graph.complete(future.get(), ready);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BeanCreationException("Interrupted while creating beans.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new BeanCreationException(cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    static class Graph {
+        // 尚未创建的依赖数量
+        final Map<BeanDefinition, Integer> pending = new HashMap<>();
+        // 依赖当前Bean的其他Bean
+        final Map<BeanDefinition, List<BeanDefinition>> dependents = new HashMap<>();
+        final Map<BeanDefinition, List<BeanDefinition>> dependencies;
+
+        Graph(Collection<BeanDefinition> defs, Map<BeanDefinition, List<BeanDefinition>> dependencies) {
+            this.dependencies = dependencies;
+            for (BeanDefinition def : defs) {
+                this.pending.put(def, 0);
+                this.dependents.put(def, new ArrayList<>());
+            }
+            for (BeanDefinition def : defs) {
+                // 同一个依赖可能出现多次（多个参数类型相同），只计一次:
+                for (BeanDefinition dependency : new LinkedHashSet<>(dependencies.getOrDefault(def, Collections.emptyList()))) {
+                    List<BeanDefinition> list = this.dependents.get(dependency);
+                    if (list != null) {
+                        list.add(def);
+                        this.pending.merge(def, 1, Integer::sum);
+                    }
+                }
+            }
+        }
+
+        int size() {
+            return this.pending.size();
+        }
+
+        PriorityQueue<BeanDefinition> initialReady() {
+            PriorityQueue<BeanDefinition> ready = new PriorityQueue<>();
+            this.pending.forEach((def, count) -> {
+                if (count == 0) {
+                    ready.add(def);
+                }
+            });
+            return ready;
+        }
+
+        void complete(BeanDefinition def, PriorityQueue<BeanDefinition> ready) {
+            for (BeanDefinition dependent : this.dependents.get(def)) {
+                if (this.pending.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+
+        /**
+         * 模拟一次拓扑排序，无法排序的Bean一定处于循环依赖中
+         */
+        void checkCycles() {
+            Map<BeanDefinition, Integer> counts = new HashMap<>(this.pending);
+            Deque<BeanDefinition> queue = new ArrayDeque<>();
+            counts.forEach((def, count) -> {
+                if (count == 0) {
+                    queue.add(def);
+                }
+            });
+            int visited = 0;
+            while (!queue.isEmpty()) {
+                BeanDefinition def = queue.poll();
+                visited++;
+                for (BeanDefinition dependent : this.dependents.get(def)) {
+                    if (counts.merge(dependent, -1, Integer::sum) == 0) {
+                        queue.add(dependent);
+                    }
+                }
+            }
+            if (visited < counts.size()) {
+                Set<BeanDefinition> remaining = counts.entrySet().stream().filter(e -> e.getValue() > 0).map(Map.Entry::getKey)
+                        .collect(Collectors.toCollection(TreeSet::new));
+                throw new UnsatisfiedDependencyException("Circular dependency detected: " + findCycle(remaining));
+            }
+        }
+
+        String findCycle(Set<BeanDefinition> remaining) {
+            // 从任意一个剩余节点出发沿依赖走，必然回到路径上的某个节点:
+            List<BeanDefinition> path = new ArrayList<>();
+            BeanDefinition current = remaining.iterator().next();
+            while (!path.contains(current)) {
+                path.add(current);
+                for (BeanDefinition dependency : this.dependencies.getOrDefault(current, Collections.emptyList())) {
+                    if (remaining.contains(dependency)) {
+                        current = dependency;
+                        break;
+                    }
+                }
+            }
+            List<BeanDefinition> cycle = new ArrayList<>(path.subList(path.indexOf(current), path.size()));
+            cycle.add(current);
+            return cycle.stream().map(BeanDefinition::getName).collect(Collectors.joining(" -> "));
+        }
+    }
+
+    static class CreatorThreadFactory implements ThreadFactory {
+        final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "summer-bean-creator-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+}
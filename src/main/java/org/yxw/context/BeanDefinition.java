@@ -1,9 +1,14 @@
 package org.yxw.context;
 
 import jakarta.annotation.Nullable;
+import org.yxw.annotation.ConfigurationProperties;
+import org.yxw.annotation.Scope;
 import org.yxw.exception.BeanCreationException;
+import org.yxw.exception.BeanDefinitionException;
+import org.yxw.utils.ClassUtils;
 
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.Objects;
@@ -14,8 +19,8 @@ public class BeanDefinition implements Comparable<BeanDefinition> {
     private final String name;
     // Bean的声明类型
     private final Class<?> beanClass;
-    // Bean的实例
-    private Object instance = null;
+    // Bean的实例，延迟创建的Bean可能在其他线程中设置
+    private volatile Object instance = null;
     // 构造方法/null
     private final Constructor<?> constructor;
     // 工厂方法名称/null
@@ -26,6 +31,14 @@ public class BeanDefinition implements Comparable<BeanDefinition> {
     private final int order;
     // 是否标识了@Primary
     private final boolean primary;
+    // 是否延迟创建
+    private boolean lazy;
+    // 作用域，默认singleton
+    private String scope = Scope.SINGLETON;
+    // prototype Bean的对象池，没有时为null
+    private InstancePool pool;
+    // 绑定的@ConfigurationProperties，没有时为null
+    private ConfigurationProperties configurationProperties;
 
     private String initMethodName;
     private String destroyMethodName;
@@ -33,6 +46,12 @@ public class BeanDefinition implements Comparable<BeanDefinition> {
     private Method initMethod;
     private Method destroyMethod;
 
+    // 创建实例和调用init/destroy方法的Invoker，第一次使用时创建
+    private volatile Invoker createInvoker;
+    private volatile LifecycleInvoker initInvoker;
+    private volatile LifecycleInvoker destroyInvoker;
+    private volatile LifecycleInvoker resetInvoker;
+
     public BeanDefinition(String name, Class<?> beanClass, Constructor<?> constructor, int order, boolean primary,
         String initMethodName, String destroyMethodName, Method initMethod, Method destroyMethod) {
         this.name = name;
@@ -108,6 +127,64 @@ public class BeanDefinition implements Comparable<BeanDefinition> {
         return destroyMethod;
     }
 
+    /**
+     * 调用构造方法或工厂方法的Invoker，优先使用编译期生成的工厂
+     */
+    public Invoker getCreateInvoker() {
+        Invoker invoker = this.createInvoker;
+        if (invoker == null) {
+            Executable executable = this.constructor != null ? this.constructor : this.factoryMethod;
+            invoker = GeneratedFactory.find(executable);
+            if (invoker == null) {
+                invoker = Invoker.of(executable);
+            }
+            this.createInvoker = invoker;
+        }
+        return invoker;
+    }
+
+    /**
+     * 调用init方法的Invoker，按名称指定的方法在instanceClass中查找，没有init方法时返回null
+     */
+    @Nullable
+    public Invoker getInitInvoker(Class<?> instanceClass) {
+        LifecycleInvoker invoker = this.initInvoker;
+        if (invoker == null || invoker.instanceClass != instanceClass) {
+            invoker = new LifecycleInvoker(instanceClass, this.initMethod, this.initMethodName, this.factoryMethod, "#initMethod");
+            this.initInvoker = invoker;
+        }
+        return invoker.invoker;
+    }
+
+    /**
+     * 调用destroy方法的Invoker，按名称指定的方法在instanceClass中查找，没有destroy方法时返回null
+     */
+    @Nullable
+    public Invoker getDestroyInvoker(Class<?> instanceClass) {
+        LifecycleInvoker invoker = this.destroyInvoker;
+        if (invoker == null || invoker.instanceClass != instanceClass) {
+            invoker = new LifecycleInvoker(instanceClass, this.destroyMethod, this.destroyMethodName, this.factoryMethod, "#destroyMethod");
+            this.destroyInvoker = invoker;
+        }
+        return invoker.invoker;
+    }
+
+    /**
+     * 归还到对象池时调用reset方法的Invoker，没有对象池或reset方法时返回null
+     */
+    @Nullable
+    public Invoker getResetInvoker(Class<?> instanceClass) {
+        if (this.pool == null || this.pool.resetMethodName == null) {
+            return null;
+        }
+        LifecycleInvoker invoker = this.resetInvoker;
+        if (invoker == null || invoker.instanceClass != instanceClass) {
+            invoker = new LifecycleInvoker(instanceClass, null, this.pool.resetMethodName, null, null);
+            this.resetInvoker = invoker;
+        }
+        return invoker.invoker;
+    }
+
     public String getName() {
         return name;
     }
@@ -135,17 +212,72 @@ public class BeanDefinition implements Comparable<BeanDefinition> {
             throw new BeanCreationException(String.format("Bean with name '%s' and type '%s' is not assignable from the given instance of type '%s'.",
                     this.getName(), this.getBeanClass().getName(), instance.getClass().getName()));
         }
+        this.instance = instance;
+    }
+
+    public int getOrder() {
+        return this.order;
     }
 
     public boolean isPrimary() {
         return this.primary;
     }
 
+    public boolean isLazy() {
+        return this.lazy;
+    }
+
+    public void setLazy(boolean lazy) {
+        this.lazy = lazy;
+    }
+
+    public String getScope() {
+        return this.scope;
+    }
+
+    public boolean isSingleton() {
+        return Scope.SINGLETON.equals(this.scope);
+    }
+
+    /**
+     * 按@Scope设置作用域和对象池，没有标注时为singleton
+     */
+    public void setScope(@Nullable Scope scope) {
+        if (scope == null) {
+            return;
+        }
+        if (scope.value().isEmpty()) {
+            throw new BeanDefinitionException(String.format("Scope name of bean '%s' must not be empty.", this.name));
+        }
+        if (scope.poolSize() < 0) {
+            throw new BeanDefinitionException(String.format("Pool size of bean '%s' must not be negative.", this.name));
+        }
+        if (scope.poolSize() > 0 && !Scope.PROTOTYPE.equals(scope.value())) {
+            throw new BeanDefinitionException(String.format("Only prototype bean can be pooled, but bean '%s' has scope '%s'.", this.name, scope.value()));
+        }
+        this.scope = scope.value();
+        this.pool = scope.poolSize() > 0 ? new InstancePool(scope.poolSize(), scope.resetMethod().isEmpty() ? null : scope.resetMethod()) : null;
+    }
+
+    @Nullable
+    InstancePool getPool() {
+        return this.pool;
+    }
+
+    @Nullable
+    public ConfigurationProperties getConfigurationProperties() {
+        return this.configurationProperties;
+    }
+
+    public void setConfigurationProperties(ConfigurationProperties configurationProperties) {
+        this.configurationProperties = configurationProperties;
+    }
+
     @Override
     public String toString() {
         return "BeanDefinition [name=" + name + ", beanClass=" + beanClass.getName() + ", factory=" + getCreateDetail() + ", init-method="
                 + (initMethod == null ? "null" : initMethod.getName()) + ", destroy-method=" + (destroyMethod == null ? "null" : destroyMethod.getName())
-                + ", primary=" + primary + ", instance=" + instance + "]";
+                + ", primary=" + primary + ", lazy=" + lazy + ", scope=" + scope + ", instance=" + instance + "]";
     }
 
     String getCreateDetail() {
@@ -165,6 +297,29 @@ public class BeanDefinition implements Comparable<BeanDefinition> {
         return this.name.compareTo(other.name);
     }
 
+    static class LifecycleInvoker {
+        final Class<?> instanceClass;
+        final Invoker invoker;
 
-
+        /**
+         * @param factoryMethod 按名称指定的方法优先使用@Bean方法所在类生成的工厂
+         * @param suffix        生成的工厂中对应的key后缀
+         */
+        LifecycleInvoker(Class<?> instanceClass, Method method, String methodName, Method factoryMethod, String suffix) {
+            this.instanceClass = instanceClass;
+            Invoker generated = null;
+            if (method != null) {
+                generated = GeneratedFactory.find(method);
+            } else if (methodName != null) {
+                // 生成的代码把实例转型为@Bean方法的返回类型:
+                if (factoryMethod != null && factoryMethod.getReturnType().isAssignableFrom(instanceClass)) {
+                    generated = GeneratedFactory.find(factoryMethod, suffix);
+                }
+                if (generated == null) {
+                    method = ClassUtils.getNamedMethod(instanceClass, methodName);
+                }
+            }
+            this.invoker = generated != null ? generated : (method == null ? null : Invoker.of(method));
+        }
+    }
 }
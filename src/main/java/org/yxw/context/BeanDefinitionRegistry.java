@@ -0,0 +1,141 @@
+package org.yxw.context;
+
+import jakarta.annotation.Nullable;
+import org.yxw.exception.BeanDefinitionException;
+import org.yxw.exception.NoUniqueBeanDefinitionException;
+
+import java.util.*;
+
+/**
+ * 按Name和Type索引的BeanDefinition注册表。
+ *
+ * 注册时把BeanDefinition索引到它的类、所有父类和所有接口下，并保持每个类型下的列表有序，
+ * 按Type查找时只需一次哈希查找，@Primary的解析结果在第一次查找后缓存。
+ */
+public class BeanDefinitionRegistry {
+
+    private final Map<String, BeanDefinition> byName = new HashMap<>();
+    private final Map<Class<?>, TypeEntry> byType = new HashMap<>();
+
+    public BeanDefinitionRegistry() {
+    }
+
+    public BeanDefinitionRegistry(Collection<BeanDefinition> defs) {
+        defs.forEach(this::register);
+    }
+
+    public void register(BeanDefinition def) {
+        if (this.byName.put(def.getName(), def) != null) {
+            throw new BeanDefinitionException("Duplicate bean name '" + def.getName() + "' is not allowed");
+        }
+        for (Class<?> type : getAssignableTypes(def.getBeanClass())) {
+            this.byType.computeIfAbsent(type, TypeEntry::new).add(def);
+        }
+    }
+
+    @Nullable
+    public BeanDefinition get(String name) {
+        return this.byName.get(name);
+    }
+
+    /**
+     * 返回所有可以赋值给type的BeanDefinition，按@Order和名称排序
+     */
+    public List<BeanDefinition> getByType(Class<?> type) {
+        TypeEntry entry = this.byType.get(type);
+        return entry == null ? Collections.emptyList() : entry.view;
+    }
+
+    /**
+     * 返回唯一的BeanDefinition，存在多个时返回唯一的@Primary，不存在返回null
+     */
+    @Nullable
+    public BeanDefinition getUnique(Class<?> type) {
+        TypeEntry entry = this.byType.get(type);
+        return entry == null ? null : entry.getUnique();
+    }
+
+    public Collection<BeanDefinition> values() {
+        return Collections.unmodifiableCollection(this.byName.values());
+    }
+
+    public int size() {
+        return this.byName.size();
+    }
+
+    /**
+     * 类本身、所有父类以及直接或间接实现的所有接口
+     */
+    static Set<Class<?>> getAssignableTypes(Class<?> clazz) {
+        Set<Class<?>> types = new LinkedHashSet<>();
+        Deque<Class<?>> queue = new ArrayDeque<>();
+        queue.add(clazz);
+        while (!queue.isEmpty()) {
+            Class<?> type = queue.poll();
+            if (types.add(type)) {
+                if (type.getSuperclass() != null) {
+                    queue.add(type.getSuperclass());
+                }
+                queue.addAll(Arrays.asList(type.getInterfaces()));
+            }
+        }
+        // 接口类型的Bean同样可以赋值给Object:
+        types.add(Object.class);
+        return types;
+    }
+
+    static class TypeEntry {
+        final Class<?> type;
+        final List<BeanDefinition> defs = new ArrayList<>();
+        final List<BeanDefinition> view = Collections.unmodifiableList(defs);
+        // 缓存的唯一BeanDefinition，或者无法确定唯一时的错误信息
+        volatile BeanDefinition unique;
+        volatile String uniqueError;
+
+        TypeEntry(Class<?> type) {
+            this.type = type;
+        }
+
+        void add(BeanDefinition def) {
+            int index = Collections.binarySearch(this.defs, def);
+            this.defs.add(index < 0 ? -index - 1 : index, def);
+            this.unique = null;
+            this.uniqueError = null;
+        }
+
+        BeanDefinition getUnique() {
+            BeanDefinition def = this.unique;
+            if (def == null && this.uniqueError == null) {
+                resolveUnique();
+                def = this.unique;
+            }
+            if (def == null) {
+                throw new NoUniqueBeanDefinitionException(this.uniqueError);
+            }
+            return def;
+        }
+
+        void resolveUnique() {
+            if (this.defs.size() == 1) {
+                this.unique = this.defs.get(0);
+                return;
+            }
+            // more than 1 beans, require @Primary:
+            BeanDefinition primary = null;
+            int primaryCount = 0;
+            for (BeanDefinition def : this.defs) {
+                if (def.isPrimary()) {
+                    primary = def;
+                    primaryCount++;
+                }
+            }
+            if (primaryCount == 1) {
+                this.unique = primary;
+            } else if (primaryCount == 0) {
+                this.uniqueError = String.format("Multiple bean with type '%s' found, but no @Primary specified.", this.type.getName());
+            } else {
+                this.uniqueError = String.format("Multiple bean with type '%s' found, and multiple @Primary specified.", this.type.getName());
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package org.yxw.context;
+
+import jakarta.annotation.Nullable;
+import org.yxw.exception.BeanNotOfRequiredTypeException;
+import org.yxw.exception.NoUniqueBeanDefinitionException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 按Type以及按Name+Type缓存BeanDefinition的查找结果，找不到(null)和抛出异常的结果同样缓存。
+ *
+ * 容器启动期间使用ConcurrentHashMap，启动完成后freeze()为不可变的HashMap，之后读取只需一次volatile读和一次哈希查找，
+ * 之后才出现的新key通过写时复制加入。
+ */
+class BeanResolutionCache {
+
+    private final ConcurrentHashMap<Object, Resolution> building = new ConcurrentHashMap<>();
+    private volatile Map<Object, Resolution> frozen = null;
+
+    @Nullable
+    BeanDefinition resolve(Class<?> type, Supplier<BeanDefinition> resolver) {
+        return resolve0(type, resolver);
+    }
+
+    @Nullable
+    BeanDefinition resolve(String name, Class<?> type, Supplier<BeanDefinition> resolver) {
+        return resolve0(new NameTypeKey(name, type), resolver);
+    }
+
+    @Nullable
+    BeanDefinition resolve0(Object key, Supplier<BeanDefinition> resolver) {
+        Map<Object, Resolution> snapshot = this.frozen;
+        Resolution resolution = snapshot != null ? snapshot.get(key) : this.building.get(key);
+        if (resolution == null) {
+            resolution = Resolution.of(resolver);
+            if (snapshot == null) {
+                Resolution existing = this.building.putIfAbsent(key, resolution);
+                resolution = existing != null ? existing : resolution;
+            } else {
+                copyOnWrite(key, resolution);
+            }
+        }
+        return resolution.get();
+    }
+
+    synchronized void copyOnWrite(Object key, Resolution resolution) {
+        Map<Object, Resolution> copy = new HashMap<>(this.frozen);
+        copy.putIfAbsent(key, resolution);
+        this.frozen = copy;
+    }
+
+    /**
+     * 容器启动完成后调用，BeanDefinition不会再变化
+     */
+    synchronized void freeze() {
+        if (this.frozen == null) {
+            this.frozen = new HashMap<>(this.building);
+            this.building.clear();
+        }
+    }
+
+    boolean isFrozen() {
+        return this.frozen != null;
+    }
+
+    int size() {
+        Map<Object, Resolution> snapshot = this.frozen;
+        return snapshot != null ? snapshot.size() : this.building.size();
+    }
+
+    static class Resolution {
+        final BeanDefinition def;
+        // 查找时抛出的异常，每次返回时重新创建
+        final Function<String, ? extends RuntimeException> errorFactory;
+        final String errorMessage;
+
+        Resolution(BeanDefinition def, Function<String, ? extends RuntimeException> errorFactory, String errorMessage) {
+            this.def = def;
+            this.errorFactory = errorFactory;
+            this.errorMessage = errorMessage;
+        }
+
+        static Resolution of(Supplier<BeanDefinition> resolver) {
+            try {
+                return new Resolution(resolver.get(), null, null);
+            } catch (NoUniqueBeanDefinitionException e) {
+                return new Resolution(null, NoUniqueBeanDefinitionException::new, e.getMessage());
+            } catch (BeanNotOfRequiredTypeException e) {
+                return new Resolution(null, BeanNotOfRequiredTypeException::new, e.getMessage());
+            }
+        }
+
+        BeanDefinition get() {
+            if (this.errorFactory != null) {
+                throw this.errorFactory.apply(this.errorMessage);
+            }
+            return this.def;
+        }
+    }
+
+    static final class NameTypeKey {
+        final String name;
+        final Class<?> type;
+
+        NameTypeKey(String name, Class<?> type) {
+            this.name = name;
+            this.type = type;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof NameTypeKey)) {
+                return false;
+            }
+            NameTypeKey other = (NameTypeKey) o;
+            return this.name.equals(other.name) && this.type == other.type;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, type);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package org.yxw.context;
+
+import jakarta.annotation.Nullable;
+
+import java.util.function.Supplier;
+
+/**
+ * 自定义作用域，例如请求或会话，通过AnnotationConfigApplicationContext.registerScope()注册。
+ *
+ * <code>
+ * ctx.registerScope("request", new RequestScope());
+ * </code>
+ */
+public interface BeanScope {
+
+    /**
+     * 返回当前作用域中名称为name的实例，不存在时调用factory创建（包括注入和init方法）并保存。
+     *
+     * factory可能递归获取同一作用域中的其他Bean，保存实例时不能持有会被重入的锁
+     */
+    Object get(String name, Supplier<Object> factory);
+
+    /**
+     * 从当前作用域中移除并返回实例，不存在时返回null
+     */
+    @Nullable
+    Object remove(String name);
+}
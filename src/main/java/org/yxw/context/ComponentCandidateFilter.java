@@ -0,0 +1,132 @@
+package org.yxw.context;
+
+import org.yxw.annotation.Component;
+import org.yxw.utils.ClassFileMetadata;
+import org.yxw.utils.ClassFileReader;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 读取.class文件字节判断类是否可能是组件，只有候选类才需要Class.forName()加载，
+ * 避免加载DTO、工具类等普通类并执行它们的static初始化。
+ *
+ * 无法读取类文件时保守地返回true，交给后续的反射判断。
+ */
+public class ComponentCandidateFilter {
+
+    static final String COMPONENT = Component.class.getName();
+    static final String INHERITED = "java.lang.annotation.Inherited";
+
+    final ClassLoader classLoader;
+    // 注解类名 -> 注解信息(是否间接标注@Component, 是否@Inherited)
+    final Map<String, AnnotationInfo> annotationInfos = new ConcurrentHashMap<>();
+
+    public ComponentCandidateFilter(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    public boolean isCandidate(String className) {
+        ClassFileMetadata metadata = ClassFileReader.read(this.classLoader, className);
+        if (metadata == null) {
+            return true;
+        }
+        if (metadata.isAnnotation() || metadata.isEnum() || metadata.isInterface()) {
+            return false;
+        }
+        for (String annoType : metadata.getAnnotationTypes()) {
+            if (getAnnotationInfo(annoType).component) {
+                return true;
+            }
+        }
+        // @Inherited的组件注解标注在父类上时，子类的getAnnotation()同样可以找到:
+        String superClassName = metadata.getSuperClassName();
+        while (superClassName != null && !superClassName.equals("java.lang.Object")) {
+            ClassFileMetadata superMetadata = ClassFileReader.read(this.classLoader, superClassName);
+            if (superMetadata == null) {
+                return true;
+            }
+            for (String annoType : superMetadata.getAnnotationTypes()) {
+                AnnotationInfo info = getAnnotationInfo(annoType);
+                if (info.component && info.inherited) {
+                    return true;
+                }
+            }
+            superClassName = superMetadata.getSuperClassName();
+        }
+        return false;
+    }
+
+    AnnotationInfo getAnnotationInfo(String annoType) {
+        AnnotationInfo info = this.annotationInfos.get(annoType);
+        if (info == null) {
+            info = resolveAnnotationInfo(annoType);
+            this.annotationInfos.put(annoType, info);
+        }
+        return info;
+    }
+
+    /**
+     * 广度优先遍历注解的元注解闭包，元注解之间存在环时也能结束
+     */
+    AnnotationInfo resolveAnnotationInfo(String annoType) {
+        if (annoType.equals(COMPONENT)) {
+            return AnnotationInfo.COMPONENT;
+        }
+        if (annoType.startsWith("java.lang.annotation.")) {
+            return AnnotationInfo.NONE;
+        }
+        ClassFileMetadata metadata = ClassFileReader.read(this.classLoader, annoType);
+        if (metadata == null) {
+            // 读不到注解定义，无法判断
+            return AnnotationInfo.UNKNOWN;
+        }
+        boolean inherited = metadata.getAnnotationTypes().contains(INHERITED);
+        Set<String> visited = new HashSet<>();
+        Deque<ClassFileMetadata> queue = new ArrayDeque<>();
+        visited.add(annoType);
+        queue.add(metadata);
+        while (!queue.isEmpty()) {
+            ClassFileMetadata current = queue.poll();
+            for (String meta : current.getAnnotationTypes()) {
+                if (meta.equals(COMPONENT)) {
+                    return new AnnotationInfo(true, inherited);
+                }
+                if (meta.startsWith("java.lang.annotation.") || !visited.add(meta)) {
+                    continue;
+                }
+                AnnotationInfo cached = this.annotationInfos.get(meta);
+                if (cached != null) {
+                    if (cached.component) {
+                        return new AnnotationInfo(true, inherited);
+                    }
+                    continue;
+                }
+                ClassFileMetadata metaMetadata = ClassFileReader.read(this.classLoader, meta);
+                if (metaMetadata == null) {
+                    return new AnnotationInfo(true, inherited);
+                }
+                queue.add(metaMetadata);
+            }
+        }
+        return new AnnotationInfo(false, inherited);
+    }
+
+    static class AnnotationInfo {
+        static final AnnotationInfo COMPONENT = new AnnotationInfo(true, false);
+        static final AnnotationInfo NONE = new AnnotationInfo(false, false);
+        static final AnnotationInfo UNKNOWN = new AnnotationInfo(true, true);
+
+        final boolean component;
+        final boolean inherited;
+
+        AnnotationInfo(boolean component, boolean inherited) {
+            this.component = component;
+            this.inherited = inherited;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.yxw.context;
+
+import jakarta.annotation.Nullable;
+import org.yxw.utils.ClassPathUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 编译期生成的组件索引，合并classpath上所有的META-INF/summer.components文件。
+ *
+ * 索引只覆盖包含索引文件的classpath根目录或jar，其他根目录仍然需要扫描，通过isIndexed()判断。
+ */
+public class ComponentIndex {
+
+    public static final String INDEX_LOCATION = "META-INF/summer.components";
+
+    private final NavigableSet<String> classNames;
+    // 包含索引文件的classpath根目录，例如file:/app/classes/或jar:file:/app/lib/a.jar!/
+    private final Set<String> roots;
+
+    ComponentIndex(NavigableSet<String> classNames, Set<String> roots) {
+        this.classNames = classNames;
+        this.roots = roots;
+    }
+
+    /**
+     * 加载组件索引，classpath上没有索引文件时返回null
+     */
+    @Nullable
+    public static ComponentIndex load(ClassLoader classLoader) {
+        try {
+            Enumeration<URL> urls = classLoader.getResources(INDEX_LOCATION);
+            if (!urls.hasMoreElements()) {
+                return null;
+            }
+            NavigableSet<String> classNames = new TreeSet<>();
+            Set<String> roots = new HashSet<>();
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                String s = url.toString();
+                roots.add(s.substring(0, s.length() - INDEX_LOCATION.length()));
+                try (InputStream input = url.openStream()) {
+                    BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        line = line.trim();
+                        if (!line.isEmpty() && !line.startsWith("#")) {
+                            classNames.add(line);
+                        }
+                    }
+                }
+            }
+            return new ComponentIndex(classNames, roots);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Nullable
+    public static ComponentIndex load() {
+        return load(ClassPathUtils.getContextClassLoader());
+    }
+
+    /**
+     * 返回package及其子package下的所有组件类名
+     */
+    public List<String> getCandidates(String basePackage) {
+        // '/'紧跟在'.'之后，subSet正好覆盖"basePackage."开头的所有类名
+        return new ArrayList<>(this.classNames.subSet(basePackage + ".", true, basePackage + "/", false));
+    }
+
+    /**
+     * classpath根目录是否有索引文件，root的格式与ResourceResolver.getRoot()相同
+     */
+    public boolean isIndexed(String root) {
+        return this.roots.contains(root);
+    }
+
+    public int size() {
+        return this.classNames.size();
+    }
+}
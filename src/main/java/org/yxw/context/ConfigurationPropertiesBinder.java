@@ -0,0 +1,188 @@
+package org.yxw.context;
+
+import org.yxw.exception.BeanCreationException;
+import org.yxw.io.PropertyResolver;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 把PropertyResolver中某个prefix下的属性一次绑定到对象。
+ *
+ * 每个类的绑定计划只计算一次：按属性名（同时支持max-pool-size和maxPoolSize）索引setter或字段的MethodHandle。
+ * 绑定时遍历prefix下的属性，而不是逐个查找每个属性。PropertyResolver无法转换的类型作为嵌套对象绑定。
+ */
+public class ConfigurationPropertiesBinder {
+
+    static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    // 是否作为嵌套对象取决于PropertyResolver注册的转换器，因此每个binder单独缓存
+    final Map<Class<?>, BinderPlan> plans = new ConcurrentHashMap<>();
+
+    final PropertyResolver propertyResolver;
+
+    public ConfigurationPropertiesBinder(PropertyResolver propertyResolver) {
+        this.propertyResolver = propertyResolver;
+    }
+
+    /**
+     * @param ignoreUnknownFields 为false时，prefix下存在无法绑定的属性会抛出BeanCreationException
+     */
+    public <T> T bind(String prefix, T target, boolean ignoreUnknownFields) {
+        bind(prefix, target, this.propertyResolver.getSubProperties(prefix), ignoreUnknownFields);
+        return target;
+    }
+
+    void bind(String prefix, Object target, Map<String, String> properties, boolean ignoreUnknownFields) {
+        BinderPlan plan = getPlan(target.getClass());
+        // 嵌套对象的属性，例如pool.max-size:
+        Map<String, Map<String, String>> nested = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : properties.entrySet()) {
+            String key = entry.getKey();
+            PropertyBinder binder = plan.binders.get(key);
+            if (binder != null && binder.simple) {
+                binder.set(target, this.propertyResolver.convert(entry.getValue(), binder.genericType));
+                continue;
+            }
+            int n = key.indexOf('.');
+            PropertyBinder nestedBinder = n < 0 ? null : plan.binders.get(key.substring(0, n));
+            if (nestedBinder != null && !nestedBinder.simple) {
+                nested.computeIfAbsent(key.substring(0, n), k -> new LinkedHashMap<>()).put(key.substring(n + 1), entry.getValue());
+            } else if (!ignoreUnknownFields) {
+                throw new BeanCreationException(String.format("Cannot bind property '%s.%s' to %s.", prefix, key, target.getClass().getName()));
+            }
+        }
+        for (Map.Entry<String, Map<String, String>> entry : nested.entrySet()) {
+            PropertyBinder binder = plan.binders.get(entry.getKey());
+            Object value = binder.getOrCreate(target);
+            bind(prefix + "." + entry.getKey(), value, entry.getValue(), ignoreUnknownFields);
+        }
+    }
+
+    BinderPlan getPlan(Class<?> clazz) {
+        BinderPlan plan = plans.get(clazz);
+        if (plan == null) {
+            plan = new BinderPlan(clazz, this.propertyResolver);
+            plans.put(clazz, plan);
+        }
+        return plan;
+    }
+
+    /**
+     * maxPoolSize -> max-pool-size
+     */
+    static String toKebabCase(String name) {
+        StringBuilder sb = new StringBuilder(name.length() + 4);
+        for (int i = 0; i < name.length(); i++) {
+            char ch = name.charAt(i);
+            if (Character.isUpperCase(ch)) {
+                if (i > 0) {
+                    sb.append('-');
+                }
+                sb.append(Character.toLowerCase(ch));
+            } else {
+                sb.append(ch);
+            }
+        }
+        return sb.toString();
+    }
+
+    static class BinderPlan {
+        // 属性名 -> binder，同一个binder以kebab-case和camelCase两种名称注册
+        final Map<String, PropertyBinder> binders = new HashMap<>();
+
+        BinderPlan(Class<?> clazz, PropertyResolver propertyResolver) {
+            try {
+                // 先注册字段，setter优先:
+                for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+                    for (Field field : c.getDeclaredFields()) {
+                        int mod = field.getModifiers();
+                        if (Modifier.isStatic(mod) || Modifier.isFinal(mod) || field.isSynthetic() || this.binders.containsKey(field.getName())) {
+                            continue;
+                        }
+                        field.setAccessible(true);
+                        register(field.getName(), new PropertyBinder(field.getType(), field.getGenericType(), propertyResolver.canConvert(field.getType()),
+                                LOOKUP.unreflectSetter(field), LOOKUP.unreflectGetter(field)));
+                    }
+                }
+                for (Method method : clazz.getMethods()) {
+                    String name = method.getName();
+                    if (Modifier.isStatic(method.getModifiers()) || method.getParameterCount() != 1 || name.length() <= 3 || !name.startsWith("set")) {
+                        continue;
+                    }
+                    String property = Character.toLowerCase(name.charAt(3)) + name.substring(4);
+                    Class<?> type = method.getParameterTypes()[0];
+                    PropertyBinder existing = this.binders.get(property);
+                    MethodHandle getter = existing != null && existing.type == type ? existing.getter : null;
+                    register(property, new PropertyBinder(type, method.getGenericParameterTypes()[0], propertyResolver.canConvert(type), LOOKUP.unreflect(method), getter));
+                }
+            } catch (IllegalAccessException e) {
+                throw new BeanCreationException("Cannot create binder for " + clazz.getName(), e);
+            }
+        }
+
+        void register(String name, PropertyBinder binder) {
+            this.binders.put(name, binder);
+            this.binders.put(toKebabCase(name), binder);
+        }
+    }
+
+    static class PropertyBinder {
+        final Class<?> type;
+        // 转换List<Integer>这样的集合时需要元素类型
+        final Type genericType;
+        // PropertyResolver可以直接转换的类型，否则作为嵌套对象绑定
+        final boolean simple;
+        // (Object, Object)void
+        final MethodHandle setter;
+        // (Object)Object，可能为null
+        final MethodHandle getter;
+
+        PropertyBinder(Class<?> type, Type genericType, boolean simple, MethodHandle setter, MethodHandle getter) {
+            this.type = type;
+            this.genericType = genericType;
+            this.simple = simple;
+            this.setter = setter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+            this.getter = getter == null ? null : getter.asType(MethodType.methodType(Object.class, Object.class));
+        }
+
+        void set(Object target, Object value) {
+            try {
+                this.setter.invokeExact(target, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new BeanCreationException(e);
+            }
+        }
+
+        /**
+         * 嵌套对象为null时通过无参构造方法创建并设置
+         */
+        Object getOrCreate(Object target) {
+            try {
+                Object value = this.getter == null ? null : (Object) this.getter.invokeExact(target);
+                if (value == null) {
+                    Constructor<?> ctor = this.type.getDeclaredConstructor();
+                    value = Invoker.of(ctor).invoke(null, new Object[0]);
+                    set(target, value);
+                }
+                return value;
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new BeanCreationException("Cannot create nested properties of type " + this.type.getName(), e);
+            }
+        }
+    }
+}
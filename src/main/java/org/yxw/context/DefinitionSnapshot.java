@@ -0,0 +1,300 @@
+package org.yxw.context;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yxw.annotation.ConfigurationProperties;
+import org.yxw.annotation.Scope;
+import org.yxw.exception.BeanDefinitionException;
+import org.yxw.utils.ClassUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * 扫描和创建BeanDefinition的结果只取决于classpath，把结果写入快照文件，classpath不变时直接从快照重建BeanDefinition，不再扫描。
+ *
+ * 快照记录每个Bean的名称、类名、构造方法或工厂方法的签名、order、primary、lazy以及init/destroy方法名，其他注解（例如@Scope）在读取时从类或方法获取。
+ * 通过classpath指纹判断是否有效：目录中每个文件的路径、大小和修改时间，jar文件的大小和修改时间。
+ *
+ * 文件格式（DataOutputStream）：
+ *
+ * <code>
+ * int    magic "SMDS"
+ * int    version
+ * long   classpath指纹
+ * int    Bean数量，之后为每个Bean的定义
+ * </code>
+ */
+public class DefinitionSnapshot {
+
+    static final Logger logger = LoggerFactory.getLogger(DefinitionSnapshot.class);
+
+    static final int MAGIC = 0x534d4453;
+    static final int VERSION = 1;
+
+    static final Map<String, Class<?>> PRIMITIVES = new HashMap<>();
+
+    static {
+        for (Class<?> type : new Class<?>[] { boolean.class, byte.class, short.class, char.class, int.class, long.class, float.class, double.class }) {
+            PRIMITIVES.put(type.getName(), type);
+        }
+    }
+
+    /**
+     * 读取快照，文件不存在、指纹不一致或类已经变化时返回null
+     */
+    public static Map<String, BeanDefinition> load(Path file, long fingerprint, ClassLoader classLoader) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                logger.warn("Invalid definition snapshot: {}", file);
+                return null;
+            }
+            if (input.readLong() != fingerprint) {
+                logger.info("classpath changed, ignore definition snapshot: {}", file);
+                return null;
+            }
+            int count = input.readInt();
+            Map<String, BeanDefinition> defs = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                BeanDefinition def = readDefinition(input, classLoader);
+                defs.put(def.getName(), def);
+            }
+            logger.debug("load {} bean definitions from snapshot: {}", count, file);
+            return defs;
+        } catch (IOException | ReflectiveOperationException | LinkageError | BeanDefinitionException e) {
+            logger.warn("Cannot load definition snapshot: " + file, e);
+            return null;
+        }
+    }
+
+    /**
+     * 写入临时文件后替换
+     */
+    public static void write(Path file, long fingerprint, Collection<BeanDefinition> defs) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeLong(fingerprint);
+                output.writeInt(defs.size());
+                for (BeanDefinition def : defs) {
+                    writeDefinition(output, def);
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        logger.info("write {} bean definitions to snapshot: {}", defs.size(), file);
+    }
+
+    static void writeDefinition(DataOutputStream output, BeanDefinition def) throws IOException {
+        output.writeUTF(def.getName());
+        output.writeUTF(def.getBeanClass().getName());
+        Method factoryMethod = def.getFactoryMethod();
+        output.writeBoolean(factoryMethod != null);
+        if (factoryMethod != null) {
+            output.writeUTF(def.getFactoryName());
+            output.writeUTF(factoryMethod.getDeclaringClass().getName());
+            output.writeUTF(factoryMethod.getName());
+            writeTypes(output, factoryMethod.getParameterTypes());
+            writeNullable(output, def.getInitMethodName());
+            writeNullable(output, def.getDestroyMethodName());
+        } else {
+            writeTypes(output, def.getConstructor().getParameterTypes());
+            // @PostConstruct和@PreDestroy方法声明在beanClass中:
+            writeNullable(output, def.getInitMethod() == null ? null : def.getInitMethod().getName());
+            writeNullable(output, def.getDestroyMethod() == null ? null : def.getDestroyMethod().getName());
+        }
+        output.writeInt(def.getOrder());
+        output.writeBoolean(def.isPrimary());
+        output.writeBoolean(def.isLazy());
+    }
+
+    static BeanDefinition readDefinition(DataInputStream input, ClassLoader classLoader) throws IOException, ReflectiveOperationException {
+        String name = input.readUTF();
+        Class<?> beanClass = loadClass(input.readUTF(), classLoader);
+        BeanDefinition def;
+        ConfigurationProperties configurationProperties;
+        Scope scope;
+        if (input.readBoolean()) {
+            String factoryName = input.readUTF();
+            Class<?> factoryClass = loadClass(input.readUTF(), classLoader);
+            Method method = factoryClass.getDeclaredMethod(input.readUTF(), readTypes(input, classLoader));
+            String initMethodName = readNullable(input);
+            String destroyMethodName = readNullable(input);
+            int order = input.readInt();
+            boolean primary = input.readBoolean();
+            def = new BeanDefinition(name, beanClass, factoryName, method, order, primary, initMethodName, destroyMethodName, null, null);
+            configurationProperties = method.getAnnotation(ConfigurationProperties.class);
+            scope = method.getAnnotation(Scope.class);
+        } else {
+            Constructor<?> ctor = beanClass.getDeclaredConstructor(readTypes(input, classLoader));
+            String initMethodName = readNullable(input);
+            String destroyMethodName = readNullable(input);
+            int order = input.readInt();
+            boolean primary = input.readBoolean();
+            // 与扫描时一样按注解查找，方法变化时快照失效:
+            Method initMethod = findAnnotationMethod(beanClass, PostConstruct.class, initMethodName);
+            Method destroyMethod = findAnnotationMethod(beanClass, PreDestroy.class, destroyMethodName);
+            def = new BeanDefinition(name, beanClass, ctor, order, primary, null, null, initMethod, destroyMethod);
+            configurationProperties = beanClass.getAnnotation(ConfigurationProperties.class);
+            scope = beanClass.getAnnotation(Scope.class);
+        }
+        def.setLazy(input.readBoolean());
+        def.setConfigurationProperties(configurationProperties);
+        def.setScope(scope);
+        return def;
+    }
+
+    static Method findAnnotationMethod(Class<?> beanClass, Class<? extends Annotation> annoClass, String expectedName) throws NoSuchMethodException {
+        Method method = ClassUtils.findAnnotationMethod(beanClass, annoClass);
+        String name = method == null ? null : method.getName();
+        if (!Objects.equals(name, expectedName)) {
+            throw new NoSuchMethodException(String.format("@%s method changed from '%s' to '%s': %s", annoClass.getSimpleName(), expectedName, name,
+                    beanClass.getName()));
+        }
+        return method;
+    }
+
+    static void writeTypes(DataOutputStream output, Class<?>[] types) throws IOException {
+        output.writeShort(types.length);
+        for (Class<?> type : types) {
+            output.writeUTF(type.getName());
+        }
+    }
+
+    static Class<?>[] readTypes(DataInputStream input, ClassLoader classLoader) throws IOException, ClassNotFoundException {
+        Class<?>[] types = new Class<?>[input.readShort()];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = loadClass(input.readUTF(), classLoader);
+        }
+        return types;
+    }
+
+    static void writeNullable(DataOutputStream output, String s) throws IOException {
+        output.writeBoolean(s != null);
+        if (s != null) {
+            output.writeUTF(s);
+        }
+    }
+
+    static String readNullable(DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+
+    static Class<?> loadClass(String name, ClassLoader classLoader) throws ClassNotFoundException {
+        Class<?> primitive = PRIMITIVES.get(name);
+        return primitive != null ? primitive : Class.forName(name, true, classLoader);
+    }
+
+    /**
+     * 计算classpath指纹：java.class.path以及classLoader（包括父ClassLoader）中的URLClassLoader的所有目录和jar，
+     * 以及影响BeanDefinition的其他输入，例如配置类名称和lazy-init。
+     *
+     * @param snapshotFile 快照文件可能位于classpath的目录中，计算时忽略快照文件和写入时的临时文件
+     */
+    public static long fingerprint(ClassLoader classLoader, Path snapshotFile, String... inputs) throws IOException {
+        Path snapshot = snapshotFile.toAbsolutePath().normalize();
+        String snapshotName = snapshot.getFileName().toString();
+        CRC32 crc = new CRC32();
+        for (String s : inputs) {
+            update(crc, s);
+        }
+        for (Path root : classpathRoots(classLoader)) {
+            update(crc, root.toString());
+            if (Files.isDirectory(root)) {
+                List<Path> files;
+                try (Stream<Path> stream = Files.walk(root)) {
+                    files = stream.filter(Files::isRegularFile)
+                            .filter(file -> !(file.getParent().equals(snapshot.getParent()) && file.getFileName().toString().startsWith(snapshotName)))
+                            .sorted().collect(Collectors.toList());
+                } catch (UncheckedIOException e) {
+                    // 遍历时目录被删除或无法读取:
+                    throw e.getCause();
+                }
+                for (Path file : files) {
+                    update(crc, root.relativize(file).toString());
+                    updateAttributes(crc, file);
+                }
+            } else if (Files.isRegularFile(root)) {
+                updateAttributes(crc, root);
+            }
+        }
+        return crc.getValue();
+    }
+
+    static Set<Path> classpathRoots(ClassLoader classLoader) {
+        Set<Path> roots = new LinkedHashSet<>();
+        List<ClassLoader> loaders = new ArrayList<>();
+        for (ClassLoader cl = classLoader; cl != null; cl = cl.getParent()) {
+            loaders.add(0, cl);
+        }
+        for (String entry : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+            if (!entry.isEmpty()) {
+                roots.add(Paths.get(entry).toAbsolutePath().normalize());
+            }
+        }
+        for (ClassLoader cl : loaders) {
+            if (cl instanceof URLClassLoader) {
+                for (URL url : ((URLClassLoader) cl).getURLs()) {
+                    if ("file".equals(url.getProtocol())) {
+                        try {
+                            roots.add(Paths.get(url.toURI()).toAbsolutePath().normalize());
+                        } catch (URISyntaxException | IllegalArgumentException e) {
+                            logger.debug("ignore classpath url: {}", url);
+                        }
+                    }
+                }
+            }
+        }
+        return roots;
+    }
+
+    static void update(CRC32 crc, String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        crc.update(bytes, 0, bytes.length);
+        crc.update(0);
+    }
+
+    static void updateAttributes(CRC32 crc, Path file) throws IOException {
+        BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        update(crc, attrs.size() + ":" + attrs.lastModifiedTime().toMillis());
+    }
+}
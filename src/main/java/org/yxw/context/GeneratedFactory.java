@@ -0,0 +1,98 @@
+package org.yxw.context;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.util.Optional;
+
+/**
+ * 编译期由BeanFactoryProcessor为每个组件生成的工厂类&lt;类名&gt;$$SummerFactory的基类。
+ *
+ * 生成的工厂直接调用构造方法、@Bean方法以及init/destroy方法，存在时BeanDefinition优先使用，不存在或不支持某个方法时
+ * （例如private方法）仍然通过MethodHandle或反射调用。
+ */
+public abstract class GeneratedFactory {
+
+    public static final String SUFFIX = "$$SummerFactory";
+
+    static final Logger logger = LoggerFactory.getLogger(GeneratedFactory.class);
+
+    // Class -> 生成的工厂，不存在时为Optional.empty()，保存在Class中，不会阻止卸载ClassLoader
+    static volatile ClassValue<Optional<GeneratedFactory>> factories = newFactories();
+
+    /**
+     * 返回key对应的Invoker，不支持时返回null。
+     *
+     * key为方法签名，例如&lt;init&gt;(java.lang.String,int)、createZone()，@Bean方法指定的init/destroy方法为
+     * createHello()#initMethod和createHello()#destroyMethod
+     */
+    public abstract Invoker getInvoker(String key);
+
+    /**
+     * 查找构造方法或方法对应的生成代码，不存在时返回null
+     */
+    static Invoker find(Executable executable) {
+        return find(executable, "");
+    }
+
+    /**
+     * @param suffix @Bean方法的init/destroy方法为#initMethod和#destroyMethod
+     */
+    static Invoker find(Executable executable, String suffix) {
+        GeneratedFactory factory = of(executable.getDeclaringClass());
+        return factory == null ? null : factory.getInvoker(signature(executable) + suffix);
+    }
+
+    static void clearCache() {
+        factories = newFactories();
+    }
+
+    static ClassValue<Optional<GeneratedFactory>> newFactories() {
+        return new ClassValue<Optional<GeneratedFactory>>() {
+            @Override
+            protected Optional<GeneratedFactory> computeValue(Class<?> type) {
+                return load(type);
+            }
+        };
+    }
+
+    static GeneratedFactory of(Class<?> clazz) {
+        return factories.get(clazz).orElse(null);
+    }
+
+    static Optional<GeneratedFactory> load(Class<?> clazz) {
+        ClassLoader classLoader = clazz.getClassLoader();
+        if (classLoader == null) {
+            return Optional.empty();
+        }
+        try {
+            Class<?> factoryClass = Class.forName(clazz.getName() + SUFFIX, true, classLoader);
+            logger.debug("use generated factory: {}", factoryClass.getName());
+            return Optional.of((GeneratedFactory) factoryClass.getConstructor().newInstance());
+        } catch (ClassNotFoundException e) {
+            return Optional.empty();
+        } catch (ReflectiveOperationException | LinkageError | ClassCastException e) {
+            logger.warn("Cannot load generated factory of " + clazz.getName(), e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * 与BeanFactoryProcessor生成的key一致：方法名（构造方法为&lt;init&gt;）以及参数类型的Class.getTypeName()
+     */
+    static String signature(Executable executable) {
+        StringBuilder sb = new StringBuilder(64);
+        sb.append(executable instanceof Constructor ? "<init>" : ((Method) executable).getName()).append('(');
+        Class<?>[] types = executable.getParameterTypes();
+        for (int i = 0; i < types.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(types[i].getTypeName());
+        }
+        return sb.append(')').toString();
+    }
+}
@@ -0,0 +1,291 @@
+package org.yxw.context;
+
+import org.yxw.annotation.Autowired;
+import org.yxw.annotation.Value;
+import org.yxw.exception.BeanDefinitionException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 一个类的注入计划：标注@Value或@Autowired的字段和方法，按父类在前、字段在前的顺序排列。
+ *
+ * 每个类和每个构造方法/工厂方法只通过反射查找一次，之后创建同一个类的实例（包括新创建的context）直接使用缓存的计划。
+ */
+final class InjectionPlan {
+
+    static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    // 缓存保存在Class中而不是静态Map中，不会阻止卸载ClassLoader:
+    static volatile ClassValue<InjectionPlan> plans = newPlans();
+    // 声明类 -> 构造方法或工厂方法的参数
+    static volatile ClassValue<Map<Executable, Dependency[]>> parameters = newParameters();
+
+    static final InjectionPlan EMPTY = new InjectionPlan(Collections.emptyList(), Collections.emptyList());
+
+    // 只注入配置值的成员，创建实例后立即注入
+    final List<InjectionMember> valueMembers;
+    // 需要注入其他Bean的成员，所有Bean创建后注入，因此允许循环引用
+    final List<InjectionMember> beanMembers;
+
+    InjectionPlan(List<InjectionMember> valueMembers, List<InjectionMember> beanMembers) {
+        this.valueMembers = valueMembers;
+        this.beanMembers = beanMembers;
+    }
+
+    static InjectionPlan of(Class<?> clazz) {
+        return plans.get(clazz);
+    }
+
+    /**
+     * 构造方法或工厂方法的参数，没有标注@Value的参数按类型注入Bean
+     */
+    static Dependency[] parameters(Executable executable) {
+        Map<Executable, Dependency[]> map = parameters.get(executable.getDeclaringClass());
+        Dependency[] deps = map.get(executable);
+        if (deps == null) {
+            deps = map.computeIfAbsent(executable, e -> parameters(e, null));
+        }
+        return deps;
+    }
+
+    /**
+     * ClassValue不能清空，替换为新的实例
+     */
+    static void clearCache() {
+        plans = newPlans();
+        parameters = newParameters();
+    }
+
+    static ClassValue<InjectionPlan> newPlans() {
+        return new ClassValue<InjectionPlan>() {
+            @Override
+            protected InjectionPlan computeValue(Class<?> type) {
+                return create(type);
+            }
+        };
+    }
+
+    static ClassValue<Map<Executable, Dependency[]>> newParameters() {
+        return new ClassValue<Map<Executable, Dependency[]>>() {
+            @Override
+            protected Map<Executable, Dependency[]> computeValue(Class<?> type) {
+                return new ConcurrentHashMap<>();
+            }
+        };
+    }
+
+    static InjectionPlan create(Class<?> clazz) {
+        // 从子类开始查找，记录非private方法的签名，父类中被覆写的方法不再注入:
+        Set<String> signatures = new HashSet<>();
+        Deque<List<InjectionMember>> members = new ArrayDeque<>();
+        for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+            List<InjectionMember> list = new ArrayList<>();
+            for (Field field : c.getDeclaredFields()) {
+                InjectionMember member = createMember(field);
+                if (member != null) {
+                    list.add(member);
+                }
+            }
+            for (Method method : c.getDeclaredMethods()) {
+                if (method.isBridge() || method.isSynthetic()) {
+                    continue;
+                }
+                boolean isPrivate = Modifier.isPrivate(method.getModifiers());
+                if (!isPrivate && !signatures.add(signature(method))) {
+                    continue;
+                }
+                InjectionMember member = createMember(method);
+                if (member != null) {
+                    list.add(member);
+                }
+            }
+            members.push(list);
+        }
+        List<InjectionMember> valueMembers = new ArrayList<>();
+        List<InjectionMember> beanMembers = new ArrayList<>();
+        for (List<InjectionMember> list : members) {
+            for (InjectionMember member : list) {
+                (member.isValue() ? valueMembers : beanMembers).add(member);
+            }
+        }
+        if (valueMembers.isEmpty() && beanMembers.isEmpty()) {
+            return EMPTY;
+        }
+        return new InjectionPlan(valueMembers, beanMembers);
+    }
+
+    static InjectionMember createMember(Field field) {
+        Value value = field.getAnnotation(Value.class);
+        Autowired autowired = field.getAnnotation(Autowired.class);
+        if (value == null && autowired == null) {
+            return null;
+        }
+        String description = "field " + field.getDeclaringClass().getName() + "." + field.getName();
+        if (value != null && autowired != null) {
+            throw new BeanDefinitionException("Cannot specify both @Autowired and @Value on " + description + ".");
+        }
+        int mod = field.getModifiers();
+        if (Modifier.isStatic(mod) || Modifier.isFinal(mod)) {
+            throw new BeanDefinitionException("Cannot inject static or final " + description + ".");
+        }
+        Dependency dep = value != null ? Dependency.ofValue(value.value(), field.getType(), field.getGenericType()) : Dependency.ofBean(autowired, field.getType());
+        try {
+            field.setAccessible(true);
+            MethodHandle setter = LOOKUP.unreflectSetter(field).asType(MethodType.methodType(void.class, Object.class, Object.class));
+            return new InjectionMember(description, new Dependency[] { dep }, new FieldInvoker(setter));
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new BeanDefinitionException("Cannot inject " + description + ".", e);
+        }
+    }
+
+    static InjectionMember createMember(Method method) {
+        Value value = method.getAnnotation(Value.class);
+        Autowired autowired = method.getAnnotation(Autowired.class);
+        if (value == null && autowired == null) {
+            return null;
+        }
+        String description = "method " + method.getDeclaringClass().getName() + "." + method.getName() + "()";
+        if (value != null && autowired != null) {
+            throw new BeanDefinitionException("Cannot specify both @Autowired and @Value on " + description + ".");
+        }
+        if (Modifier.isStatic(method.getModifiers())) {
+            throw new BeanDefinitionException("Cannot inject static " + description + ".");
+        }
+        Dependency[] deps;
+        if (value != null) {
+            if (method.getParameterCount() != 1) {
+                throw new BeanDefinitionException("@Value " + description + " must have exactly one parameter.");
+            }
+            Parameter param = method.getParameters()[0];
+            deps = new Dependency[] { Dependency.ofValue(value.value(), param.getType(), param.getParameterizedType()) };
+        } else {
+            if (method.getParameterCount() == 0) {
+                throw new BeanDefinitionException("@Autowired " + description + " must have at least one parameter.");
+            }
+            deps = parameters(method, autowired);
+        }
+        return new InjectionMember(description, deps, Invoker.of(method));
+    }
+
+    static String signature(Method method) {
+        return method.getName() + Arrays.toString(method.getParameterTypes());
+    }
+
+    static Dependency[] parameters(Executable executable, Autowired methodAutowired) {
+        Parameter[] params = executable.getParameters();
+        Dependency[] deps = new Dependency[params.length];
+        for (int i = 0; i < params.length; i++) {
+            Parameter param = params[i];
+            Value value = param.getAnnotation(Value.class);
+            Autowired autowired = param.getAnnotation(Autowired.class);
+            if (value != null && autowired != null) {
+                throw new BeanDefinitionException(String.format("Cannot specify both @Autowired and @Value on parameter %s of %s.", param.getName(), executable));
+            }
+            if (value != null) {
+                deps[i] = Dependency.ofValue(value.value(), param.getType(), param.getParameterizedType());
+            } else {
+                deps[i] = Dependency.ofBean(autowired != null ? autowired : methodAutowired, param.getType());
+            }
+        }
+        return deps;
+    }
+
+    /**
+     * 一个需要注入的字段或方法
+     */
+    static final class InjectionMember {
+        // 用于错误信息
+        final String description;
+        final Dependency[] dependencies;
+        final Invoker invoker;
+
+        InjectionMember(String description, Dependency[] dependencies, Invoker invoker) {
+            this.description = description;
+            this.dependencies = dependencies;
+            this.invoker = invoker;
+        }
+
+        boolean isValue() {
+            for (Dependency dep : this.dependencies) {
+                if (!dep.isValue()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 通过MethodHandle设置字段，args只有一个元素
+     */
+    static final class FieldInvoker extends Invoker {
+        // (Object, Object)void
+        final MethodHandle setter;
+
+        FieldInvoker(MethodHandle setter) {
+            this.setter = setter;
+        }
+
+        @Override
+        public Object invoke(Object target, Object[] args) throws Throwable {
+            this.setter.invokeExact(target, args[0]);
+            return null;
+        }
+    }
+
+    /**
+     * 一个需要注入的值：配置值或其他Bean。
+     *
+     * 不保存converter：Dependency被所有context共享，converter属于各自的PropertyResolver，可以被重新注册
+     */
+    static final class Dependency {
+        // @Value的key，注入Bean时为null
+        final String key;
+        // @Autowired(name)，按类型注入时为null
+        final String name;
+        final boolean required;
+        final Class<?> type;
+        final Type genericType;
+
+        Dependency(String key, String name, boolean required, Class<?> type, Type genericType) {
+            this.key = key;
+            this.name = name;
+            this.required = required;
+            this.type = type;
+            this.genericType = genericType;
+        }
+
+        static Dependency ofValue(String key, Class<?> type, Type genericType) {
+            return new Dependency(key, null, true, type, genericType);
+        }
+
+        static Dependency ofBean(Autowired autowired, Class<?> type) {
+            if (autowired == null) {
+                return new Dependency(null, null, true, type, type);
+            }
+            return new Dependency(null, autowired.name().isEmpty() ? null : autowired.name(), autowired.value(), type, type);
+        }
+
+        boolean isValue() {
+            return this.key != null;
+        }
+    }
+}
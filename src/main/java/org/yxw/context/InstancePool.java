@@ -0,0 +1,104 @@
+package org.yxw.context;
+
+import jakarta.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * prototype Bean的有界对象池，获取和归还都不加锁。
+ *
+ * 后归还的实例先被复用，缓存中的数据更可能仍然有效
+ */
+class InstancePool {
+
+    final int capacity;
+    final String resetMethodName;
+    final ConcurrentLinkedDeque<Object> idle = new ConcurrentLinkedDeque<>();
+    // 空闲的实例，按引用比较，防止同一个实例被放入两次
+    final Set<Identity> idleSet = ConcurrentHashMap.newKeySet();
+    final AtomicInteger size = new AtomicInteger();
+
+    InstancePool(int capacity, @Nullable String resetMethodName) {
+        this.capacity = capacity;
+        this.resetMethodName = resetMethodName;
+    }
+
+    /**
+     * 取出空闲的实例，没有时返回null
+     */
+    @Nullable
+    Object poll() {
+        Object instance = this.idle.pollFirst();
+        if (instance != null) {
+            this.idleSet.remove(new Identity(instance));
+            this.size.decrementAndGet();
+        }
+        return instance;
+    }
+
+    /**
+     * 实例是否已经在池中
+     */
+    boolean contains(Object instance) {
+        return this.idleSet.contains(new Identity(instance));
+    }
+
+    /**
+     * 放入空闲的实例，池已满时返回false，实例已经在池中时不重复放入
+     */
+    boolean offer(Object instance) {
+        Identity identity = new Identity(instance);
+        if (!this.idleSet.add(identity)) {
+            return true;
+        }
+        int n;
+        do {
+            n = this.size.get();
+            if (n >= this.capacity) {
+                this.idleSet.remove(identity);
+                return false;
+            }
+        } while (!this.size.compareAndSet(n, n + 1));
+        this.idle.offerFirst(instance);
+        return true;
+    }
+
+    /**
+     * 取出所有空闲的实例
+     */
+    List<Object> drain() {
+        List<Object> list = new ArrayList<>();
+        Object instance;
+        while ((instance = poll()) != null) {
+            list.add(instance);
+        }
+        return list;
+    }
+
+    int size() {
+        return this.size.get();
+    }
+
+    static final class Identity {
+        final Object instance;
+
+        Identity(Object instance) {
+            this.instance = instance;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Identity && ((Identity) o).instance == this.instance;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this.instance);
+        }
+    }
+}
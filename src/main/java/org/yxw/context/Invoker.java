@@ -0,0 +1,176 @@
+package org.yxw.context;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 调用构造方法、工厂方法以及init/destroy方法，每个BeanDefinition只创建一次。
+ *
+ * 无参数的public构造方法和方法通过LambdaMetafactory生成Supplier/Consumer，其他情况使用MethodHandle，
+ * 无法创建MethodHandle时使用反射。被调用方法抛出的异常原样抛出，不包装为InvocationTargetException。
+ */
+public abstract class Invoker {
+
+    static final Logger logger = LoggerFactory.getLogger(Invoker.class);
+
+    static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    /**
+     * 调用构造方法时忽略target
+     */
+    public abstract Object invoke(Object target, Object[] args) throws Throwable;
+
+    public static Invoker of(Executable executable) {
+        if (executable instanceof Constructor) {
+            return of((Constructor<?>) executable);
+        }
+        return of((Method) executable);
+    }
+
+    public static Invoker of(Constructor<?> ctor) {
+        if (ctor.getParameterCount() == 0 && isPublic(ctor)) {
+            try {
+                MethodHandle handle = LOOKUP.unreflectConstructor(ctor);
+                CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, "get", MethodType.methodType(Supplier.class),
+                        MethodType.methodType(Object.class), handle, MethodType.methodType(ctor.getDeclaringClass()));
+                @SuppressWarnings("unchecked")
+                Supplier<Object> supplier = (Supplier<Object>) callSite.getTarget().invoke();
+                return new SupplierInvoker(supplier);
+            } catch (Throwable e) {
+                logger.debug("Cannot create lambda for constructor {}: {}", ctor, e.toString());
+            }
+        }
+        try {
+            ctor.setAccessible(true);
+            int n = ctor.getParameterCount();
+            MethodHandle handle = LOOKUP.unreflectConstructor(ctor).asType(MethodType.genericMethodType(n)).asSpreader(Object[].class, n);
+            return new MethodHandleInvoker(MethodHandles.dropArguments(handle, 0, Object.class));
+        } catch (IllegalAccessException | RuntimeException e) {
+            logger.debug("Cannot create method handle for constructor {}: {}", ctor, e.toString());
+            return new ReflectionInvoker(ctor);
+        }
+    }
+
+    public static Invoker of(Method method) {
+        boolean isStatic = Modifier.isStatic(method.getModifiers());
+        if (method.getParameterCount() == 0 && !isStatic && method.getReturnType() == void.class && isPublic(method)) {
+            try {
+                MethodHandle handle = LOOKUP.unreflect(method);
+                CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, "accept", MethodType.methodType(Consumer.class),
+                        MethodType.methodType(void.class, Object.class), handle, MethodType.methodType(void.class, method.getDeclaringClass()));
+                @SuppressWarnings("unchecked")
+                Consumer<Object> consumer = (Consumer<Object>) callSite.getTarget().invoke();
+                return new ConsumerInvoker(consumer);
+            } catch (Throwable e) {
+                logger.debug("Cannot create lambda for method {}: {}", method, e.toString());
+            }
+        }
+        try {
+            method.setAccessible(true);
+            int n = method.getParameterCount();
+            MethodHandle handle = LOOKUP.unreflect(method);
+            if (isStatic) {
+                handle = handle.asType(MethodType.genericMethodType(n)).asSpreader(Object[].class, n);
+                return new MethodHandleInvoker(MethodHandles.dropArguments(handle, 0, Object.class));
+            }
+            return new MethodHandleInvoker(handle.asType(MethodType.genericMethodType(n + 1)).asSpreader(Object[].class, n));
+        } catch (IllegalAccessException | RuntimeException e) {
+            logger.debug("Cannot create method handle for method {}: {}", method, e.toString());
+            return new ReflectionInvoker(method);
+        }
+    }
+
+    /**
+     * public类的public成员，且生成的类可以通过当前ClassLoader访问
+     */
+    static boolean isPublic(Executable executable) {
+        Class<?> declaringClass = executable.getDeclaringClass();
+        if (!Modifier.isPublic(executable.getModifiers())) {
+            return false;
+        }
+        for (Class<?> c = declaringClass; c != null; c = c.getEnclosingClass()) {
+            if (!Modifier.isPublic(c.getModifiers())) {
+                return false;
+            }
+        }
+        try {
+            return Class.forName(declaringClass.getName(), false, Invoker.class.getClassLoader()) == declaringClass;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    static class SupplierInvoker extends Invoker {
+        final Supplier<Object> supplier;
+
+        SupplierInvoker(Supplier<Object> supplier) {
+            this.supplier = supplier;
+        }
+
+        @Override
+        public Object invoke(Object target, Object[] args) {
+            return this.supplier.get();
+        }
+    }
+
+    static class ConsumerInvoker extends Invoker {
+        final Consumer<Object> consumer;
+
+        ConsumerInvoker(Consumer<Object> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public Object invoke(Object target, Object[] args) {
+            this.consumer.accept(target);
+            return null;
+        }
+    }
+
+    static class MethodHandleInvoker extends Invoker {
+        // (Object target, Object[] args)Object
+        final MethodHandle handle;
+
+        MethodHandleInvoker(MethodHandle handle) {
+            this.handle = handle;
+        }
+
+        @Override
+        public Object invoke(Object target, Object[] args) throws Throwable {
+            return (Object) this.handle.invokeExact(target, args);
+        }
+    }
+
+    static class ReflectionInvoker extends Invoker {
+        final Executable executable;
+
+        ReflectionInvoker(Executable executable) {
+            this.executable = executable;
+        }
+
+        @Override
+        public Object invoke(Object target, Object[] args) throws Throwable {
+            try {
+                if (this.executable instanceof Constructor) {
+                    return ((Constructor<?>) this.executable).newInstance(args);
+                }
+                return ((Method) this.executable).invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
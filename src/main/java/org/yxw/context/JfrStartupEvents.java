@@ -0,0 +1,62 @@
+package org.yxw.context;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 把StartupStep提交为JFR事件，只在启用JFR时才会加载，JVM没有JFR API时不影响StartupRecorder的其他功能。
+ */
+final class JfrStartupEvents {
+
+    static Object begin() {
+        StartupStepEvent event = new StartupStepEvent();
+        event.begin();
+        return event;
+    }
+
+    static void commit(Object jfrEvent, StartupStep step) {
+        StartupStepEvent event = (StartupStepEvent) jfrEvent;
+        event.end();
+        if (event.shouldCommit()) {
+            event.id = step.getId();
+            event.parentId = step.getParentId();
+            event.name = step.getName();
+            event.tags = step.getTags().isEmpty() ? null : step.getTags().toString();
+            event.allocatedBytes = step.getAllocatedBytes();
+            event.loadedClasses = step.getLoadedClasses();
+            event.commit();
+        }
+    }
+
+    @Name("summer.StartupStep")
+    @Label("Startup Step")
+    @Category("Summer Framework")
+    @Description("A phase of application context startup")
+    @StackTrace(false)
+    static class StartupStepEvent extends Event {
+
+        @Label("Id")
+        int id;
+
+        @Label("Parent Id")
+        int parentId;
+
+        @Label("Name")
+        String name;
+
+        @Label("Tags")
+        String tags;
+
+        @Label("Allocated Bytes")
+        @DataAmount
+        long allocatedBytes;
+
+        @Label("Loaded Classes")
+        long loadedClasses;
+    }
+}
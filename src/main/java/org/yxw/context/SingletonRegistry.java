@@ -0,0 +1,108 @@
+package org.yxw.context;
+
+import org.yxw.exception.BeanCreationException;
+import org.yxw.exception.UnsatisfiedDependencyException;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * 按需创建singleton，没有全局锁。
+ *
+ * 已创建的实例保存在BeanDefinition的volatile字段中，读取不加锁。第一个获取的线程登记一个Creation并创建实例，
+ * 同时获取同一个Bean的其他线程等待该Creation完成，不相关的Bean互不阻塞。创建失败时所有等待的线程都得到异常，
+ * 之后的获取会重新创建。
+ *
+ * 字段注入允许延迟Bean之间循环引用：实例构造完成后通过publishEarly()登记，创建线程在注入字段时再次获取该Bean，
+ * 得到尚未初始化的实例，其他线程仍然等待init方法完成。构造方法参数的循环依赖，或者多个线程互相等待对方正在创建的Bean时，
+ * 抛出UnsatisfiedDependencyException而不是死锁。
+ */
+class SingletonRegistry {
+
+    // 正在创建的Bean
+    final Map<BeanDefinition, Creation> creations = new ConcurrentHashMap<>();
+    // 线程 -> 正在等待的Creation，用于检查死锁
+    final Map<Thread, Creation> waiting = new ConcurrentHashMap<>();
+
+    /**
+     * 返回已创建的实例，不存在时调用factory创建，factory返回前实例对其他线程不可见
+     */
+    Object getOrCreate(BeanDefinition def, Supplier<Object> factory) {
+        Object instance = def.getInstance();
+        if (instance != null) {
+            return instance;
+        }
+        Creation creation = new Creation(Thread.currentThread());
+        Creation existing = this.creations.putIfAbsent(def, creation);
+        if (existing != null) {
+            // 当前线程正在注入该Bean的字段:
+            if (existing.owner == creation.owner && existing.early != null) {
+                return existing.early;
+            }
+            return await(def, existing);
+        }
+        try {
+            // 上一个Creation可能在登记之前刚刚完成:
+            instance = def.getInstance();
+            if (instance == null) {
+                instance = factory.get();
+                def.setInstance(instance);
+            }
+            creation.complete(instance);
+            return instance;
+        } catch (RuntimeException | Error e) {
+            creation.completeExceptionally(e);
+            throw e;
+        } finally {
+            this.creations.remove(def, creation);
+        }
+    }
+
+    /**
+     * 实例构造完成、注入之前由创建线程调用，之后同一线程再次获取时返回该实例
+     */
+    void publishEarly(BeanDefinition def, Object instance) {
+        Creation creation = this.creations.get(def);
+        if (creation != null && creation.owner == Thread.currentThread()) {
+            creation.early = instance;
+        }
+    }
+
+    Object await(BeanDefinition def, Creation creation) {
+        Thread current = Thread.currentThread();
+        this.waiting.put(current, creation);
+        try {
+            // 先登记再检查，形成环的最后一个线程一定能看到其他线程的等待:
+            Creation c = creation;
+            for (int i = 0; c != null && i <= this.waiting.size(); i++) {
+                if (c.owner == current) {
+                    throw new UnsatisfiedDependencyException(String.format("Circular dependency detected when create lazy bean '%s': %s.", def.getName(),
+                            def.getBeanClass().getName()));
+                }
+                c = this.waiting.get(c.owner);
+            }
+            return creation.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BeanCreationException(String.format("Interrupted when waiting for bean '%s'.", def.getName()), e);
+        } catch (ExecutionException e) {
+            throw new BeanCreationException(String.format("Exception when create bean '%s' in thread '%s'.", def.getName(), creation.owner.getName()),
+                    e.getCause());
+        } finally {
+            this.waiting.remove(current);
+        }
+    }
+
+    static class Creation extends CompletableFuture<Object> {
+        final Thread owner;
+        // 构造完成但尚未初始化的实例，只被owner线程读写
+        Object early;
+
+        Creation(Thread owner) {
+            this.owner = owner;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package org.yxw.context;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * 记录context启动的各个阶段，例如扫描、创建BeanDefinition、创建每个Bean。
+ *
+ * 默认使用NONE，start()返回共享的空操作StartupStep，不分配对象也不读取MXBean。
+ * 启用后可以在启动完成后通过getSteps()查询，导出为JSON，或在阶段结束时提交JFR事件。
+ *
+ * <code>
+ * StartupRecorder recorder = StartupRecorder.recording(false);
+ * new AnnotationConfigApplicationContext(AppConfig.class, propertyResolver, recorder);
+ * recorder.writeJson(writer);
+ * </code>
+ */
+public class StartupRecorder {
+
+    public static final StartupRecorder NONE = new StartupRecorder(false);
+
+    final boolean enabled;
+    final boolean jfr;
+    final long originNanos = System.nanoTime();
+    final AtomicInteger nextId = new AtomicInteger();
+    // 当前线程未结束的最内层阶段
+    final ThreadLocal<StartupStep> current = new ThreadLocal<>();
+    final ConcurrentLinkedQueue<StartupStep> steps = new ConcurrentLinkedQueue<>();
+
+    // 当前线程累计分配的字节数，JVM不支持时为null
+    final LongSupplier allocatedBytes;
+    final ClassLoadingMXBean classLoadingBean;
+
+    StartupRecorder(boolean enabled) {
+        this(enabled, false);
+    }
+
+    StartupRecorder(boolean enabled, boolean jfr) {
+        this.enabled = enabled;
+        this.jfr = jfr;
+        this.allocatedBytes = enabled ? allocatedBytesCounter() : null;
+        this.classLoadingBean = enabled ? ManagementFactory.getClassLoadingMXBean() : null;
+    }
+
+    /**
+     * 创建记录所有阶段的recorder
+     *
+     * @param jfr 是否在每个阶段结束时提交JFR事件summer.StartupStep，JVM不支持JFR时抛出IllegalStateException
+     */
+    public static StartupRecorder recording(boolean jfr) {
+        if (jfr && !isJfrAvailable()) {
+            throw new IllegalStateException("JFR is not available in this JVM.");
+        }
+        return new StartupRecorder(true, jfr);
+    }
+
+    /**
+     * 检查时不加载jdk.jfr中的类，JDK 8u262之前的版本没有JFR API
+     */
+    static boolean isJfrAvailable() {
+        try {
+            Class<?> clazz = Class.forName("jdk.jfr.FlightRecorder");
+            return (Boolean) clazz.getMethod("isAvailable").invoke(null);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * com.sun.management.ThreadMXBean只在HotSpot等JVM中存在，在单独的类中访问，不存在时不影响StartupRecorder
+     */
+    static LongSupplier allocatedBytesCounter() {
+        try {
+            return ThreadAllocation.counter();
+        } catch (LinkageError e) {
+            return null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 在其他线程中执行task，期间开始的阶段以parent为父阶段，例如并行创建Bean时的context.bean
+     */
+    public void runInStep(StartupStep parent, Runnable task) {
+        if (!this.enabled || this.current.get() == parent) {
+            task.run();
+            return;
+        }
+        StartupStep previous = this.current.get();
+        this.current.set(parent);
+        try {
+            task.run();
+        } finally {
+            if (previous == null) {
+                this.current.remove();
+            } else {
+                this.current.set(previous);
+            }
+        }
+    }
+
+    public StartupStep start(String name) {
+        if (!this.enabled) {
+            return StartupStep.NONE;
+        }
+        StartupStep step = new StartupStep(this, this.nextId.getAndIncrement(), this.current.get(), name);
+        this.current.set(step);
+        if (this.jfr) {
+            step.jfrEvent = JfrStartupEvents.begin();
+        }
+        return step;
+    }
+
+    void ended(StartupStep step) {
+        // 未按嵌套顺序结束时，当前线程只回退到该阶段的父阶段:
+        if (this.current.get() == step) {
+            if (step.parent == null) {
+                this.current.remove();
+            } else {
+                this.current.set(step.parent);
+            }
+        }
+        if (step.jfrEvent != null) {
+            JfrStartupEvents.commit(step.jfrEvent, step);
+        }
+        this.steps.add(step);
+    }
+
+    /**
+     * 已结束的阶段，按开始顺序排列
+     */
+    public List<StartupStep> getSteps() {
+        List<StartupStep> list = new ArrayList<>(this.steps);
+        list.sort(Comparator.comparingInt(StartupStep::getId));
+        return list;
+    }
+
+    /**
+     * 按名称汇总的耗时，例如所有context.bean阶段（创建每个Bean）的总耗时
+     */
+    public long getTotalNanos(String name) {
+        long total = 0;
+        for (StartupStep step : this.steps) {
+            if (step.name.equals(name)) {
+                total += step.durationNanos;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 以JSON数组导出所有已结束的阶段
+     */
+    public void writeJson(Writer writer) throws IOException {
+        writer.write('[');
+        boolean first = true;
+        for (StartupStep step : getSteps()) {
+            writer.write(first ? "\n  {" : ",\n  {");
+            first = false;
+            writer.write("\"id\":" + step.getId() + ",\"parentId\":" + step.getParentId() + ",\"name\":");
+            writeJsonString(writer, step.getName());
+            writer.write(",\"tags\":{");
+            boolean firstTag = true;
+            for (Map.Entry<String, String> tag : step.getTags().entrySet()) {
+                if (!firstTag) {
+                    writer.write(',');
+                }
+                firstTag = false;
+                writeJsonString(writer, tag.getKey());
+                writer.write(':');
+                writeJsonString(writer, tag.getValue());
+            }
+            writer.write("},\"startNanos\":" + step.getStartNanos() + ",\"durationNanos\":" + step.getDurationNanos() + ",\"allocatedBytes\":"
+                    + step.getAllocatedBytes() + ",\"loadedClasses\":" + step.getLoadedClasses() + "}");
+        }
+        writer.write(first ? "]" : "\n]");
+    }
+
+    public String toJson() {
+        StringWriter writer = new StringWriter();
+        try {
+            writeJson(writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
+    }
+
+    static void writeJsonString(Writer writer, String s) throws IOException {
+        if (s == null) {
+            writer.write("null");
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            switch (ch) {
+                case '"':
+                    writer.write("\\\"");
+                    break;
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                default:
+                    if (ch < 0x20) {
+                        writer.write(String.format("\\u%04x", (int) ch));
+                    } else {
+                        writer.write(ch);
+                    }
+            }
+        }
+        writer.write('"');
+    }
+
+    /**
+     * 当前线程累计分配的字节数，不支持时返回-1
+     */
+    long currentThreadAllocatedBytes() {
+        return this.allocatedBytes == null ? -1 : this.allocatedBytes.getAsLong();
+    }
+
+    long totalLoadedClasses() {
+        return this.classLoadingBean.getTotalLoadedClassCount();
+    }
+
+    static final class ThreadAllocation {
+
+        static LongSupplier counter() {
+            ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+            if (!(threadBean instanceof com.sun.management.ThreadMXBean)) {
+                return null;
+            }
+            com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threadBean;
+            if (!bean.isThreadAllocatedMemorySupported()) {
+                return null;
+            }
+            return () -> bean.isThreadAllocatedMemoryEnabled() ? bean.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+        }
+    }
+}
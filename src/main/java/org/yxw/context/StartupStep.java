@@ -0,0 +1,129 @@
+package org.yxw.context;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 启动过程中的一个阶段，记录耗时、当前线程分配的字节数和加载的类的数量。
+ *
+ * 通过StartupRecorder.start()开始，end()结束，同一线程中在结束前开始的阶段作为子阶段。
+ * 未启用记录时所有方法都是空操作。
+ */
+public final class StartupStep implements AutoCloseable {
+
+    /**
+     * 未启用记录时返回的共享实例
+     */
+    static final StartupStep NONE = new StartupStep(null, -1, null, "none");
+
+    final StartupRecorder recorder;
+    final int id;
+    final StartupStep parent;
+    final String name;
+    Map<String, String> tags;
+
+    final long startNanos;
+    final long startAllocatedBytes;
+    final long startLoadedClasses;
+    // 结束前为-1:
+    volatile long durationNanos = -1;
+    long allocatedBytes;
+    long loadedClasses;
+    // 启用JFR时对应的jdk.jfr.Event
+    Object jfrEvent;
+
+    StartupStep(StartupRecorder recorder, int id, StartupStep parent, String name) {
+        this.recorder = recorder;
+        this.id = id;
+        this.parent = parent;
+        this.name = name;
+        if (recorder == null) {
+            this.startNanos = 0;
+            this.startAllocatedBytes = -1;
+            this.startLoadedClasses = -1;
+        } else {
+            this.startNanos = System.nanoTime();
+            this.startAllocatedBytes = recorder.currentThreadAllocatedBytes();
+            this.startLoadedClasses = recorder.totalLoadedClasses();
+        }
+    }
+
+    public StartupStep tag(String key, String value) {
+        if (this.recorder != null) {
+            if (this.tags == null) {
+                this.tags = new LinkedHashMap<>();
+            }
+            this.tags.put(key, value);
+        }
+        return this;
+    }
+
+    public void end() {
+        if (this.recorder != null && this.durationNanos < 0) {
+            this.durationNanos = System.nanoTime() - this.startNanos;
+            long allocated = this.recorder.currentThreadAllocatedBytes();
+            this.allocatedBytes = allocated < 0 || this.startAllocatedBytes < 0 ? -1 : allocated - this.startAllocatedBytes;
+            this.loadedClasses = this.recorder.totalLoadedClasses() - this.startLoadedClasses;
+            this.recorder.ended(this);
+        }
+    }
+
+    @Override
+    public void close() {
+        end();
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * 父阶段的id，没有父阶段时为-1
+     */
+    public int getParentId() {
+        return parent == null ? -1 : parent.id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Map<String, String> getTags() {
+        return tags == null ? Collections.emptyMap() : Collections.unmodifiableMap(tags);
+    }
+
+    /**
+     * 相对于StartupRecorder创建时的开始时间
+     */
+    public long getStartNanos() {
+        return recorder == null ? 0 : startNanos - recorder.originNanos;
+    }
+
+    /**
+     * 耗时，未结束时为-1
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * 当前线程分配的字节数，JVM不支持时为-1。并行执行的子任务在其他线程中分配的内存不计入
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * 期间整个JVM新加载的类的数量，并行执行时包括其他线程加载的类
+     */
+    public long getLoadedClasses() {
+        return loadedClasses;
+    }
+
+    @Override
+    public String toString() {
+        return "StartupStep[id=" + id + ", name=" + name + ", tags=" + getTags() + ", duration=" + durationNanos + "ns, allocated=" + allocatedBytes
+                + ", classes=" + loadedClasses + "]";
+    }
+}
@@ -0,0 +1,64 @@
+package org.yxw.context;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 每个线程一个实例，线程结束前可以通过AnnotationConfigApplicationContext.destroyScopedBean()调用destroy方法并移除。
+ *
+ * 关闭容器时通过removeAll()移除所有线程的实例并调用destroy方法。已经结束并被回收的线程不再被引用，其实例不会被销毁
+ */
+public class ThreadScope implements BeanScope {
+
+    // 线程 -> 该线程的实例，弱引用线程，不阻止回收已结束的线程:
+    final Map<Thread, Map<String, Object>> threads = Collections.synchronizedMap(new WeakHashMap<>());
+    // 其他线程在removeAll()时读取，使用ConcurrentHashMap:
+    final ThreadLocal<Map<String, Object>> instances = ThreadLocal.withInitial(() -> {
+        Map<String, Object> map = new ConcurrentHashMap<>();
+        this.threads.put(Thread.currentThread(), map);
+        return map;
+    });
+
+    @Override
+    public Object get(String name, Supplier<Object> factory) {
+        Map<String, Object> map = this.instances.get();
+        Object instance = map.get(name);
+        if (instance == null) {
+            // 创建时可能获取其他thread作用域的Bean，不能使用computeIfAbsent():
+            instance = factory.get();
+            map.put(name, instance);
+        }
+        return instance;
+    }
+
+    @Override
+    public Object remove(String name) {
+        return this.instances.get().remove(name);
+    }
+
+    /**
+     * 移除所有线程中的实例，返回名称 -> 实例列表
+     */
+    Map<String, List<Object>> removeAll() {
+        Map<String, List<Object>> removed = new HashMap<>();
+        List<Map<String, Object>> maps;
+        synchronized (this.threads) {
+            maps = new ArrayList<>(this.threads.values());
+        }
+        for (Map<String, Object> map : maps) {
+            for (String name : new ArrayList<>(map.keySet())) {
+                Object instance = map.remove(name);
+                if (instance != null) {
+                    removed.computeIfAbsent(name, k -> new ArrayList<>()).add(instance);
+                }
+            }
+        }
+        return removed;
+    }
+}
@@ -0,0 +1,11 @@
+package org.yxw.exception;
+
+/**
+ * class文件格式错误，例如文件被截断或常量池引用了错误类型的项
+ */
+public class ClassFileFormatException extends NestedRuntimeException {
+
+    public ClassFileFormatException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,11 @@
+package org.yxw.exception;
+
+public class NoSuchBeanDefinitionException extends BeanDefinitionException {
+
+    public NoSuchBeanDefinitionException() {
+    }
+
+    public NoSuchBeanDefinitionException(String message) {
+        super(message);
+    }
+}
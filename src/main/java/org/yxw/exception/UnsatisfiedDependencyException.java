@@ -0,0 +1,15 @@
+package org.yxw.exception;
+
+public class UnsatisfiedDependencyException extends BeanCreationException {
+
+    public UnsatisfiedDependencyException() {
+    }
+
+    public UnsatisfiedDependencyException(String message) {
+        super(message);
+    }
+
+    public UnsatisfiedDependencyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
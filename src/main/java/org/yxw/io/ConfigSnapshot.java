@@ -0,0 +1,260 @@
+package org.yxw.io;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * 展开后的配置的二进制快照，源文件未变化时直接映射快照文件，不再解析YAML或.properties。
+ *
+ * 文件格式（大端序）：
+ *
+ * <code>
+ * int    magic "SMCS"
+ * int    version
+ * long   源文件的CRC32校验和
+ * int    key数量n
+ * int[4] x n  按key的UTF-8字节排序的索引：key偏移、key长度、value偏移、value长度
+ * byte[] UTF-8编码的key和value，偏移从数据区开始计算
+ * </code>
+ */
+public class ConfigSnapshot {
+
+    static final Logger logger = LoggerFactory.getLogger(ConfigSnapshot.class);
+
+    static final int MAGIC = 0x534d4353;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 4 + 4 + 8 + 4;
+    static final int INDEX_ENTRY_SIZE = 4 * 4;
+
+    /**
+     * 校验和与源文件一致时映射快照，否则解析源文件并重新生成快照。
+     *
+     * @param sources 源文件，靠前的优先
+     */
+    public static MappedPropertySource load(String name, Path snapshotFile, List<Path> sources) throws IOException {
+        long checksum = checksum(sources);
+        if (Files.isRegularFile(snapshotFile)) {
+            try {
+                MappedPropertySource source = map(name, snapshotFile);
+                if (source.getChecksum() == checksum) {
+                    logger.debug("use config snapshot: {}", snapshotFile);
+                    return source;
+                }
+            } catch (IllegalArgumentException e) {
+                logger.warn("Invalid config snapshot: " + snapshotFile, e);
+            }
+        }
+        logger.info("regenerate config snapshot: {}", snapshotFile);
+        Map<String, String> properties = new TreeMap<>();
+        // 按相反顺序放入，靠前的源文件覆盖靠后的:
+        List<Path> reversed = new ArrayList<>(sources);
+        Collections.reverse(reversed);
+        for (Path path : reversed) {
+            for (Map.Entry<String, Object> entry : ReloadablePropertySource.parse(path).entrySet()) {
+                properties.put(entry.getKey(), String.valueOf(entry.getValue()));
+            }
+        }
+        write(snapshotFile, checksum, properties);
+        return map(name, snapshotFile);
+    }
+
+    /**
+     * 按顺序计算所有源文件的文件名和内容的CRC32
+     */
+    public static long checksum(List<Path> sources) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[8192];
+        for (Path path : sources) {
+            crc.update(path.getFileName().toString().getBytes(StandardCharsets.UTF_8));
+            try (InputStream input = Files.newInputStream(path)) {
+                int n;
+                while ((n = input.read(buffer)) != -1) {
+                    crc.update(buffer, 0, n);
+                }
+            }
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * 写入临时文件后替换，其他进程不会读到写了一半的快照
+     */
+    public static void write(Path snapshotFile, long checksum, Map<String, String> properties) throws IOException {
+        List<byte[]> keys = new ArrayList<>(properties.size());
+        List<byte[]> values = new ArrayList<>(properties.size());
+        for (Map.Entry<String, String> entry : properties.entrySet()) {
+            keys.add(entry.getKey().getBytes(StandardCharsets.UTF_8));
+            values.add(entry.getValue().getBytes(StandardCharsets.UTF_8));
+        }
+        // TreeMap按String排序，与UTF-8字节顺序不完全一致，需要按字节重新排序:
+        List<Integer> order = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            order.add(i);
+        }
+        order.sort((a, b) -> compare(keys.get(a), keys.get(b)));
+
+        ByteBuffer index = ByteBuffer.allocate(HEADER_SIZE + INDEX_ENTRY_SIZE * keys.size());
+        index.putInt(MAGIC).putInt(VERSION).putLong(checksum).putInt(keys.size());
+        int offset = 0;
+        for (int i : order) {
+            index.putInt(offset).putInt(keys.get(i).length);
+            offset += keys.get(i).length;
+            index.putInt(offset).putInt(values.get(i).length);
+            offset += values.get(i).length;
+        }
+        Path dir = snapshotFile.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, snapshotFile.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream output = Files.newOutputStream(tmp)) {
+                output.write(index.array());
+                for (int i : order) {
+                    output.write(keys.get(i));
+                    output.write(values.get(i));
+                }
+            }
+            Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    public static MappedPropertySource map(String name, Path snapshotFile) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Not a config snapshot: " + snapshotFile);
+        }
+        int count = buffer.getInt(16);
+        // 按long计算，count很大时不会溢出:
+        long dataStart = HEADER_SIZE + (long) INDEX_ENTRY_SIZE * count;
+        if (count < 0 || dataStart > buffer.limit()) {
+            throw new IllegalArgumentException("Corrupted config snapshot: " + snapshotFile);
+        }
+        // 检查所有key和value都在文件范围内，文件被截断或损坏时作为失效的快照重新生成:
+        for (int i = 0; i < count * 2; i++) {
+            int entry = HEADER_SIZE + 8 * i;
+            int offset = buffer.getInt(entry);
+            int length = buffer.getInt(entry + 4);
+            if (offset < 0 || length < 0 || dataStart + offset + length > buffer.limit()) {
+                throw new IllegalArgumentException("Corrupted config snapshot: " + snapshotFile);
+            }
+        }
+        return new MappedPropertySource(name, buffer, buffer.getLong(8), count, (int) dataStart);
+    }
+
+    /**
+     * 按无符号字节比较
+     */
+    static int compare(byte[] a, byte[] b) {
+        int n = Math.min(a.length, b.length);
+        for (int i = 0; i < n; i++) {
+            int cmp = (a[i] & 0xff) - (b[i] & 0xff);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return a.length - b.length;
+    }
+
+    /**
+     * 映射的快照文件，通过二分查找读取，只使用绝对位置读取，可以被多个线程同时访问。
+     */
+    public static class MappedPropertySource extends PropertySource {
+
+        final ByteBuffer buffer;
+        final long checksum;
+        final int count;
+        final int dataStart;
+
+        MappedPropertySource(String name, ByteBuffer buffer, long checksum, int count, int dataStart) {
+            super(name);
+            this.buffer = buffer;
+            this.checksum = checksum;
+            this.count = count;
+            this.dataStart = dataStart;
+        }
+
+        public long getChecksum() {
+            return checksum;
+        }
+
+        public int size() {
+            return count;
+        }
+
+        @Override
+        public String getProperty(String key) {
+            byte[] target = key.getBytes(StandardCharsets.UTF_8);
+            int low = 0;
+            int high = this.count - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int entry = HEADER_SIZE + INDEX_ENTRY_SIZE * mid;
+                int cmp = compareKey(this.buffer.getInt(entry), this.buffer.getInt(entry + 4), target);
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return readString(this.buffer.getInt(entry + 8), this.buffer.getInt(entry + 12));
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Set<String> getPropertyNames() {
+            Set<String> names = new LinkedHashSet<>(this.count);
+            for (int i = 0; i < this.count; i++) {
+                int entry = HEADER_SIZE + INDEX_ENTRY_SIZE * i;
+                names.add(readString(this.buffer.getInt(entry), this.buffer.getInt(entry + 4)));
+            }
+            return names;
+        }
+
+        int compareKey(int offset, int length, byte[] target) {
+            int n = Math.min(length, target.length);
+            int base = this.dataStart + offset;
+            for (int i = 0; i < n; i++) {
+                int cmp = (this.buffer.get(base + i) & 0xff) - (target[i] & 0xff);
+                if (cmp != 0) {
+                    return cmp;
+                }
+            }
+            return length - target.length;
+        }
+
+        String readString(int offset, int length) {
+            byte[] bytes = new byte[length];
+            // duplicate()后读取，不修改共享buffer的position:
+            ByteBuffer dup = this.buffer.duplicate();
+            ((Buffer) dup).position(this.dataStart + offset);
+            dup.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
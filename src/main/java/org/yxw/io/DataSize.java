@@ -0,0 +1,110 @@
+package org.yxw.io;
+
+import java.util.Locale;
+
+/**
+ * 数据大小，例如512MB、10KB、1GB，单位按1024换算，没有单位时为字节数。
+ */
+public final class DataSize implements Comparable<DataSize> {
+
+    static final long KB = 1024L;
+    static final long MB = KB * 1024;
+    static final long GB = MB * 1024;
+    static final long TB = GB * 1024;
+
+    final long bytes;
+
+    private DataSize(long bytes) {
+        this.bytes = bytes;
+    }
+
+    public static DataSize ofBytes(long bytes) {
+        return new DataSize(bytes);
+    }
+
+    public static DataSize ofKilobytes(long kilobytes) {
+        return new DataSize(Math.multiplyExact(kilobytes, KB));
+    }
+
+    public static DataSize ofMegabytes(long megabytes) {
+        return new DataSize(Math.multiplyExact(megabytes, MB));
+    }
+
+    public static DataSize ofGigabytes(long gigabytes) {
+        return new DataSize(Math.multiplyExact(gigabytes, GB));
+    }
+
+    /**
+     * 解析"512MB"、"10 KB"、"1g"、"2048"这样的字符串，单位不区分大小写，B可省略
+     */
+    public static DataSize parse(String text) {
+        String s = text.trim();
+        int n = 0;
+        if (n < s.length() && (s.charAt(n) == '-' || s.charAt(n) == '+')) {
+            n++;
+        }
+        while (n < s.length() && Character.isDigit(s.charAt(n))) {
+            n++;
+        }
+        if (n == 0 || !Character.isDigit(s.charAt(n - 1))) {
+            throw new IllegalArgumentException("Invalid data size: " + text);
+        }
+        long amount = Long.parseLong(s.substring(0, n));
+        String unit = s.substring(n).trim().toUpperCase(Locale.ROOT);
+        switch (unit) {
+            case "":
+            case "B":
+                return ofBytes(amount);
+            case "K":
+            case "KB":
+                return ofKilobytes(amount);
+            case "M":
+            case "MB":
+                return ofMegabytes(amount);
+            case "G":
+            case "GB":
+                return ofGigabytes(amount);
+            case "T":
+            case "TB":
+                return new DataSize(Math.multiplyExact(amount, TB));
+            default:
+                throw new IllegalArgumentException("Invalid data size unit: " + text);
+        }
+    }
+
+    public long toBytes() {
+        return bytes;
+    }
+
+    public long toKilobytes() {
+        return bytes / KB;
+    }
+
+    public long toMegabytes() {
+        return bytes / MB;
+    }
+
+    public long toGigabytes() {
+        return bytes / GB;
+    }
+
+    @Override
+    public int compareTo(DataSize o) {
+        return Long.compare(this.bytes, o.bytes);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof DataSize && ((DataSize) o).bytes == this.bytes;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(bytes);
+    }
+
+    @Override
+    public String toString() {
+        return bytes + "B";
+    }
+}
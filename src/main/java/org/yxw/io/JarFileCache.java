@@ -0,0 +1,219 @@
+package org.yxw.io;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * 全局共享的jar缓存，按jar的URI（如jar:file:/path/app.jar）引用计数。
+ *
+ * 同一个jar只创建一次FileSystem，或者只通过ZipFile读取一次中央目录，
+ * 引用计数归零时关闭FileSystem并释放缓存。使用方通过Session获取和释放引用。
+ */
+public class JarFileCache {
+
+    static final JarFileCache INSTANCE = new JarFileCache();
+
+    final Logger logger = LoggerFactory.getLogger(getClass());
+
+    final Map<URI, Entry> entries = new HashMap<>();
+
+    public static JarFileCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 打开一个新的Session
+     *
+     * @param zipFileMode true: 通过ZipFile读取一次中央目录并缓存所有entry名称，false: 使用jar FileSystem遍历目录
+     */
+    public Session openSession(boolean zipFileMode) {
+        return new Session(zipFileMode);
+    }
+
+    synchronized Entry acquire(URI jarUri) {
+        Entry entry = this.entries.get(jarUri);
+        if (entry == null) {
+            entry = new Entry(jarUri);
+            this.entries.put(jarUri, entry);
+        }
+        entry.refCount++;
+        return entry;
+    }
+
+    synchronized void release(URI jarUri) throws IOException {
+        Entry entry = this.entries.get(jarUri);
+        if (entry == null) {
+            return;
+        }
+        entry.refCount--;
+        if (entry.refCount <= 0) {
+            this.entries.remove(jarUri);
+            entry.close();
+        }
+    }
+
+    /**
+     * 当前被引用的jar数量
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    public synchronized boolean isCached(URI jarUri) {
+        return this.entries.containsKey(jarUri);
+    }
+
+    /**
+     * jar:file:/path/app.jar!/org/yxw -> jar:file:/path/app.jar
+     */
+    public static URI toJarUri(URI uri) {
+        String s = uri.toString();
+        int n = s.indexOf("!/");
+        return n < 0 ? uri : URI.create(s.substring(0, n));
+    }
+
+    class Entry {
+        final URI jarUri;
+        int refCount = 0;
+        FileSystem fileSystem;
+        // 是否由当前缓存创建，其他代码创建的FileSystem不由缓存关闭
+        boolean ownFileSystem;
+        String[] entryNames;
+
+        Entry(URI jarUri) {
+            this.jarUri = jarUri;
+        }
+
+        synchronized FileSystem getFileSystem() throws IOException {
+            if (this.fileSystem == null) {
+                try {
+                    this.fileSystem = FileSystems.newFileSystem(this.jarUri, Collections.emptyMap());
+                    this.ownFileSystem = true;
+                } catch (FileSystemAlreadyExistsException e) {
+                    this.fileSystem = FileSystems.getFileSystem(this.jarUri);
+                    this.ownFileSystem = false;
+                }
+                logger.debug("open jar file system: {}", this.jarUri);
+            }
+            return this.fileSystem;
+        }
+
+        /**
+         * 按字典序排列的所有entry名称，中央目录只读取一次
+         */
+        synchronized String[] getEntryNames() throws IOException {
+            if (this.entryNames == null) {
+                File file = Paths.get(URI.create(this.jarUri.getRawSchemeSpecificPart())).toFile();
+                try (ZipFile zipFile = new ZipFile(file)) {
+                    List<String> names = new ArrayList<>(zipFile.size());
+                    Enumeration<? extends ZipEntry> en = zipFile.entries();
+                    while (en.hasMoreElements()) {
+                        ZipEntry zipEntry = en.nextElement();
+                        if (!zipEntry.isDirectory()) {
+                            names.add(zipEntry.getName());
+                        }
+                    }
+                    String[] array = names.toArray(new String[0]);
+                    Arrays.sort(array);
+                    this.entryNames = array;
+                }
+                logger.debug("read {} entries from jar: {}", this.entryNames.length, this.jarUri);
+            }
+            return this.entryNames;
+        }
+
+        synchronized void close() throws IOException {
+            this.entryNames = null;
+            if (this.fileSystem != null) {
+                if (this.ownFileSystem) {
+                    logger.debug("close jar file system: {}", this.jarUri);
+                    this.fileSystem.close();
+                }
+                this.fileSystem = null;
+            }
+        }
+    }
+
+    /**
+     * 一个Session对同一个jar只持有一次引用，close()时释放所有引用，之后可以继续使用。
+     */
+    public class Session implements Closeable {
+
+        final boolean zipFileMode;
+        final Set<URI> acquired = new HashSet<>();
+
+        Session(boolean zipFileMode) {
+            this.zipFileMode = zipFileMode;
+        }
+
+        public boolean isZipFileMode() {
+            return zipFileMode;
+        }
+
+        public FileSystem getFileSystem(URI uri) throws IOException {
+            return entry(uri).getFileSystem();
+        }
+
+        public String[] getEntryNames(URI uri) throws IOException {
+            return entry(uri).getEntryNames();
+        }
+
+        Entry entry(URI uri) {
+            URI jarUri = toJarUri(uri);
+            synchronized (this) {
+                if (this.acquired.add(jarUri)) {
+                    return acquire(jarUri);
+                }
+            }
+            Entry entry;
+            synchronized (JarFileCache.this) {
+                entry = entries.get(jarUri);
+            }
+            if (entry == null) {
+                // 其他线程同时调用了close():
+                throw new IllegalStateException("Jar session is closed when access: " + jarUri);
+            }
+            return entry;
+        }
+
+        @Override
+        public void close() throws IOException {
+            List<URI> uris;
+            synchronized (this) {
+                uris = new ArrayList<>(this.acquired);
+                this.acquired.clear();
+            }
+            IOException error = null;
+            for (URI uri : uris) {
+                try {
+                    release(uri);
+                } catch (IOException e) {
+                    error = e;
+                }
+            }
+            if (error != null) {
+                throw error;
+            }
+        }
+    }
+}
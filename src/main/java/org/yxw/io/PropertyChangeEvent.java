@@ -0,0 +1,47 @@
+package org.yxw.io;
+
+import jakarta.annotation.Nullable;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * PropertySource发生变化时发布的事件
+ *
+ * changedKeys只包含来源中原始值发生变化的key，不包含通过${...}引用这些key的其他key。
+ * 例如app.url=${app.host}:8080，app.host变化时changedKeys中没有app.url，依赖解析后的值的监听器应当重新读取。
+ */
+public class PropertyChangeEvent {
+
+    final String sourceName;
+    final Set<String> changedKeys;
+
+    /**
+     * @param changedKeys 发生变化的key，添加、删除或替换整个PropertySource时为null
+     */
+    public PropertyChangeEvent(String sourceName, @Nullable Set<String> changedKeys) {
+        this.sourceName = sourceName;
+        this.changedKeys = changedKeys == null ? null : Collections.unmodifiableSet(changedKeys);
+    }
+
+    public String getSourceName() {
+        return sourceName;
+    }
+
+    /**
+     * 发生变化的key，无法确定时返回null，表示任意key都可能变化。不包含通过占位符引用这些key的key
+     */
+    @Nullable
+    public Set<String> getChangedKeys() {
+        return changedKeys;
+    }
+
+    public boolean isChanged(String key) {
+        return this.changedKeys == null || this.changedKeys.contains(key);
+    }
+
+    @Override
+    public String toString() {
+        return "PropertyChangeEvent [source=" + sourceName + ", changedKeys=" + changedKeys + "]";
+    }
+}
@@ -0,0 +1,7 @@
+package org.yxw.io;
+
+@FunctionalInterface
+public interface PropertyChangeListener {
+
+    void onChange(PropertyChangeEvent event);
+}
@@ -4,39 +4,69 @@ import jakarta.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.reflect.Array;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.time.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 public class PropertyResolver {
     Logger logger = LoggerFactory.getLogger(getClass());
 
-    Map<String, String> properties = new HashMap<>();
-    Map<Class<?>, Function<String, Object>> converters = new HashMap<>();
+    static final int MAX_CACHED_CONVERSIONS = 1024;
+    static final int MAX_CACHED_TEMPLATES = 4096;
+    static final int MAX_CACHED_VALUES = 4096;
 
+    // 按顺序查找的属性来源，读取时才查找
+    final PropertySources propertySources;
+    final Map<Class<?>, Function<String, Object>> converters = new ConcurrentHashMap<>();
+    // 目标类型 -> (原始值 -> 转换结果)，只缓存不可变类型的结果
+    final Map<Class<?>, Map<String, Object>> conversions = new ConcurrentHashMap<>();
+    // 转换结果不可变、可以缓存的类型：内置的类型、枚举，以及注册时声明可以缓存的类型
+    final Set<Class<?>> cacheableTypes = ConcurrentHashMap.newKeySet();
+
+    // 解析后的值、编译后的模板和key索引，来源变化时整体替换，正在读取旧缓存的线程不受影响
+    volatile ResolverCache cache = new ResolverCache();
+
+    /**
+     * props中的属性优先，其次是环境变量
+     */
     public PropertyResolver(Properties props) {
-        this.properties.putAll(System.getenv());
-        Set<String> names = props.stringPropertyNames();
-        for (String name : names) {
-            this.properties.put(name, props.getProperty(name));
-        }
-        if (logger.isDebugEnabled()) {
-            List<String> keys = new ArrayList<>(this.properties.keySet());
-            Collections.sort(keys);
-            for (String key : keys) {
-                logger.debug("PropertyResolver: {}={}", key, this.properties.get(key));
-            }
-        }
+        this(new PropertySources().addLast(PropertySource.fromProperties("properties", props)).addLast(PropertySource.systemEnvironment()));
+    }
+
+    public PropertyResolver(PropertySources propertySources) {
+        this.propertySources = propertySources;
+        this.propertySources.addChangeListener(event -> invalidateCache());
+        logger.debug("PropertyResolver: property sources {}", propertySources.getNames());
 
         // String类型:
         converters.put(String.class, s -> s);
         // boolean类型:
         converters.put(boolean.class, Boolean::parseBoolean);
         converters.put(Boolean.class, Boolean::valueOf);
-        // int类型:
+        // 其他基本类型:
+        converters.put(byte.class, Byte::parseByte);
+        converters.put(Byte.class, Byte::valueOf);
+        converters.put(short.class, Short::parseShort);
+        converters.put(Short.class, Short::valueOf);
         converters.put(int.class, Integer::parseInt);
         converters.put(Integer.class, Integer::valueOf);
-        // 其他基本类型...
+        converters.put(long.class, Long::parseLong);
+        converters.put(Long.class, Long::valueOf);
+        converters.put(float.class, Float::parseFloat);
+        converters.put(Float.class, Float::valueOf);
+        converters.put(double.class, Double::parseDouble);
+        converters.put(Double.class, Double::valueOf);
+        converters.put(char.class, PropertyResolver::parseChar);
+        converters.put(Character.class, PropertyResolver::parseChar);
+        converters.put(BigInteger.class, BigInteger::new);
+        converters.put(BigDecimal.class, BigDecimal::new);
+        converters.put(DataSize.class, DataSize::parse);
         // Date/Time类型:
         converters.put(LocalDate.class, LocalDate::parse);
         converters.put(LocalTime.class, LocalTime::parse);
@@ -44,32 +74,90 @@ public class PropertyResolver {
         converters.put(ZonedDateTime.class, ZonedDateTime::parse);
         converters.put(Duration.class, Duration::parse);
         converters.put(ZoneId.class, ZoneId::of);
+        cacheableTypes.addAll(converters.keySet());
     }
 
     public boolean containsProperty(String key) {
-        return this.properties.containsKey(key);
+        return this.propertySources.getProperty(key) != null;
+    }
+
+    public PropertySources getPropertySources() {
+        return this.propertySources;
+    }
+
+    /**
+     * 返回prefix下的所有属性，key为去掉"prefix."后的部分，按key排序，值已解析占位符
+     */
+    public Map<String, String> getSubProperties(String prefix) {
+        String start = prefix.isEmpty() ? "" : prefix + ".";
+        Map<String, String> sub = new LinkedHashMap<>();
+        for (String key : keysWithPrefix(start)) {
+            if (key.length() > start.length()) {
+                sub.put(key.substring(start.length()), getProperty(key));
+            }
+        }
+        return sub;
+    }
+
+    /**
+     * 返回以prefix开头的所有key（有序、不可修改），所有来源的key在第一次查询时建立有序索引，之后每次查询为O(log n + k)
+     */
+    public NavigableSet<String> keysWithPrefix(String prefix) {
+        NavigableSet<String> keys = getKeyIndex();
+        if (prefix.isEmpty()) {
+            return keys;
+        }
+        // 所有以prefix开头的key都小于把prefix最后一个字符加1后的字符串:
+        char last = prefix.charAt(prefix.length() - 1);
+        if (last == Character.MAX_VALUE) {
+            return keys.tailSet(prefix, true);
+        }
+        String end = prefix.substring(0, prefix.length() - 1) + (char) (last + 1);
+        return keys.subSet(prefix, true, end, false);
     }
 
+    NavigableSet<String> getKeyIndex() {
+        ResolverCache current = this.cache;
+        NavigableSet<String> keys = current.keys;
+        if (keys == null) {
+            TreeSet<String> all = new TreeSet<>();
+            for (PropertySource source : this.propertySources) {
+                all.addAll(source.getPropertyNames());
+            }
+            keys = Collections.unmodifiableNavigableSet(all);
+            current.keys = keys;
+        }
+        return keys;
+    }
+
+    /**
+     * 注册转换器，转换结果可能是可变对象（例如Date），每次转换都调用converter，不缓存
+     */
     public void registerConverter(Class<?> targetType, Function<String, Object> converter) {
+        registerConverter(targetType, converter, false);
+    }
+
+    /**
+     * @param cacheable 转换结果是否不可变，不可变的结果按原始值缓存并被所有调用者共享
+     */
+    public void registerConverter(Class<?> targetType, Function<String, Object> converter, boolean cacheable) {
         this.converters.put(targetType, converter);
+        if (cacheable) {
+            this.cacheableTypes.add(targetType);
+        } else {
+            this.cacheableTypes.remove(targetType);
+        }
+        this.conversions.remove(targetType);
     }
 
     @Nullable
     public String getProperty(String key) {
-        // 解析${abc.xyz:defaultValue}
-        PropertyExpr expr = parsePropertyExpr(key);
-        if (expr != null) {
-            if (expr.getDefaultValue() != null) {
-                return getProperty(expr.getKey(), expr.getDefaultValue());
-            } else {
-                return getRequiredProperty(expr.getKey());
-            }
-        }
-        String value = this.properties.get(key);
-        if (value != null) {
-            return parseValue(value);
+        PropertyTemplate template = compile(key);
+        if (!template.isLiteral()) {
+            // 解析${abc.xyz:defaultValue}以及jdbc:${host}:${port}这样的表达式
+            return evaluate(template, new ArrayList<>());
         }
-        return value;
+        return resolveKey(key, new ArrayList<>());
     }
 
     public String getProperty(String key, String defaultValue) {
@@ -93,6 +181,39 @@ public class PropertyResolver {
         return convert(value, targetType);
     }
 
+    /**
+     * 返回List，值可以是逗号分隔的字符串或YAML序列，key不存在返回null
+     */
+    public <E> List<E> getList(String key, Class<E> elementType) {
+        String value = getProperty(key);
+        if (value == null) {
+            return null;
+        }
+        return convertList(value, elementType);
+    }
+
+    // 直接返回基本类型，不装箱:
+
+    public int getInt(String key, int defaultValue) {
+        String value = getProperty(key);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    public long getLong(String key, long defaultValue) {
+        String value = getProperty(key);
+        return value == null ? defaultValue : Long.parseLong(value);
+    }
+
+    public double getDouble(String key, double defaultValue) {
+        String value = getProperty(key);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = getProperty(key);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+
     public String getRequiredProperty(String key) {
         String value = getProperty(key);
         return Objects.requireNonNull(value, "Property '" + key + "' not found.");
@@ -104,15 +225,95 @@ public class PropertyResolver {
     }
 
     public String parseValue(String value) {
-        PropertyExpr expr = parsePropertyExpr(value);
-        if (expr == null) {
-            return value;
+        return evaluate(compile(value), new ArrayList<>());
+    }
+
+    /**
+     * 属性来源发生变化后调用，清除已解析的值
+     */
+    void invalidateCache() {
+        this.cache = new ResolverCache();
+    }
+
+    /**
+     * 在PropertyResolver的缓存清除后通知
+     */
+    public void addPropertyChangeListener(PropertyChangeListener listener) {
+        this.propertySources.addChangeListener(listener);
+    }
+
+    public void removePropertyChangeListener(PropertyChangeListener listener) {
+        this.propertySources.removeChangeListener(listener);
+    }
+
+    PropertyTemplate compile(String value) {
+        Map<String, PropertyTemplate> templates = this.cache.templates;
+        PropertyTemplate template = templates.get(value);
+        if (template == null) {
+            template = PropertyTemplate.compile(value);
+            // 修改后的旧值随缓存一起丢弃，超过上限时不再缓存:
+            if (templates.size() < MAX_CACHED_TEMPLATES) {
+                templates.put(value, template);
+            }
         }
-        if (expr.getDefaultValue() != null) {
-            return getProperty(expr.getKey(), expr.getDefaultValue());
-        } else {
-            return getRequiredProperty(expr.getKey());
+        return template;
+    }
+
+    /**
+     * 查找key的值并解析其中的占位符，resolving为正在解析的key，用于检测循环引用
+     */
+    @Nullable
+    String resolveKey(String key, List<String> resolving) {
+        // 先读取缓存再读取来源，来源变化后计算出的旧值只会写入被替换的缓存:
+        Map<String, Optional<String>> cache = this.cache.values;
+        Optional<String> cached = cache.get(key);
+        if (cached != null) {
+            return cached.orElse(null);
+        }
+        String raw = this.propertySources.getProperty(key);
+        String value = null;
+        if (raw != null) {
+            if (resolving.contains(key)) {
+                List<String> cycle = new ArrayList<>(resolving.subList(resolving.indexOf(key), resolving.size()));
+                cycle.add(key);
+                throw new IllegalArgumentException("Circular placeholder reference: " + String.join(" -> ", cycle));
+            }
+            resolving.add(key);
+            try {
+                value = evaluate(compile(raw), resolving);
+            } finally {
+                resolving.remove(resolving.size() - 1);
+            }
+        }
+        // 查询任意不存在的key不能让缓存无限增长:
+        if (cache.size() < MAX_CACHED_VALUES) {
+            cache.put(key, Optional.ofNullable(value));
+        }
+        return value;
+    }
+
+    String evaluate(PropertyTemplate template, List<String> resolving) {
+        if (template.isLiteral()) {
+            return template.literal;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Object segment : template.segments) {
+            if (segment instanceof String) {
+                sb.append((String) segment);
+                continue;
+            }
+            PropertyTemplate.Placeholder placeholder = (PropertyTemplate.Placeholder) segment;
+            String key = evaluate(placeholder.key, resolving);
+            String value = resolveKey(key, resolving);
+            if (value == null) {
+                if (placeholder.defaultValue == null) {
+                    throw new NullPointerException("Property '" + key + "' not found.");
+                }
+                value = evaluate(placeholder.defaultValue, resolving);
+            }
+            sb.append(value);
         }
+        return sb.toString();
     }
 
     /*
@@ -135,16 +336,170 @@ public class PropertyResolver {
         return null;
     }
 
+    /**
+     * 是否可以把字符串转换为targetType，包括注册的类型、枚举、数组以及List/Set/Collection
+     */
+    public boolean canConvert(Class<?> targetType) {
+        if (this.converters.containsKey(targetType) || targetType.isEnum() || isCollection(targetType)) {
+            return true;
+        }
+        return targetType.isArray() && canConvert(targetType.getComponentType());
+    }
+
     @SuppressWarnings("unchecked")
-    <T> T convert(String value, Class<T> targetType) {
+    public <T> T convert(String value, Class<T> targetType) {
+        // 数组和集合可以被修改，每次创建新的实例:
+        if (targetType.isArray()) {
+            return (T) convertArray(value, targetType.getComponentType());
+        }
+        if (isCollection(targetType)) {
+            return (T) convertCollection(value, targetType, String.class);
+        }
+        Function<String, Object> converter = getConverter(targetType);
+        if (!this.cacheableTypes.contains(targetType)) {
+            return (T) converter.apply(value);
+        }
+        Map<String, Object> cached = this.conversions.get(targetType);
+        Object result = cached == null ? null : cached.get(value);
+        if (result == null) {
+            result = converter.apply(value);
+            if (result != null) {
+                if (cached == null) {
+                    cached = this.conversions.computeIfAbsent(targetType, k -> new ConcurrentHashMap<>());
+                }
+                // 值来自配置，数量有限，超过上限时不再缓存:
+                if (cached.size() < MAX_CACHED_CONVERSIONS) {
+                    cached.put(value, result);
+                }
+            }
+        }
+        return (T) result;
+    }
+
+    /**
+     * 按泛型类型转换，例如List&lt;Integer&gt;，元素类型无法确定时为String
+     */
+    public Object convert(String value, Type genericType) {
+        if (genericType instanceof Class) {
+            return convert(value, (Class<?>) genericType);
+        }
+        if (genericType instanceof ParameterizedType) {
+            ParameterizedType pt = (ParameterizedType) genericType;
+            Class<?> rawType = (Class<?>) pt.getRawType();
+            if (isCollection(rawType)) {
+                Type arg = pt.getActualTypeArguments()[0];
+                return convertCollection(value, rawType, arg instanceof Class ? (Class<?>) arg : String.class);
+            }
+            return convert(value, rawType);
+        }
+        throw new IllegalArgumentException("Unsupported value type: " + genericType.getTypeName());
+    }
+
+    Function<String, Object> getConverter(Class<?> targetType) {
         Function<String, Object> fn = this.converters.get(targetType);
         if (fn == null) {
-            throw new IllegalArgumentException("Unsupported value type: " + targetType.getName());
+            if (!targetType.isEnum()) {
+                throw new IllegalArgumentException("Unsupported value type: " + targetType.getName());
+            }
+            fn = enumConverter(targetType);
+            Function<String, Object> existing = this.converters.putIfAbsent(targetType, fn);
+            if (existing != null) {
+                fn = existing;
+            } else {
+                // 枚举常量不可变:
+                this.cacheableTypes.add(targetType);
+            }
+        }
+        return fn;
+    }
+
+    <E> List<E> convertList(String value, Class<E> elementType) {
+        List<String> items = splitList(value);
+        List<E> list = new ArrayList<>(items.size());
+        for (String item : items) {
+            list.add(convert(item, elementType));
         }
-        return (T) fn.apply(value);
+        return list;
     }
 
+    Collection<?> convertCollection(String value, Class<?> collectionType, Class<?> elementType) {
+        List<?> list = convertList(value, elementType);
+        if (Set.class.isAssignableFrom(collectionType)) {
+            return SortedSet.class.isAssignableFrom(collectionType) ? new TreeSet<>(list) : new LinkedHashSet<>(list);
+        }
+        return list;
+    }
 
+    Object convertArray(String value, Class<?> componentType) {
+        List<String> items = splitList(value);
+        Object array = Array.newInstance(componentType, items.size());
+        for (int i = 0; i < items.size(); i++) {
+            // 基本类型数组由Array.set()拆箱:
+            Array.set(array, i, convert(items.get(i), componentType));
+        }
+        return array;
+    }
 
-}
+    static boolean isCollection(Class<?> type) {
+        return type == List.class || type == Collection.class || type == Set.class || type == SortedSet.class || type == NavigableSet.class;
+    }
 
+    /**
+     * 按逗号拆分，YAML序列读取为"[a, b]"，先去掉方括号
+     */
+    static List<String> splitList(String value) {
+        String s = value.trim();
+        if (s.length() >= 2 && s.charAt(0) == '[' && s.charAt(s.length() - 1) == ']') {
+            s = s.substring(1, s.length() - 1).trim();
+        }
+        if (s.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> items = new ArrayList<>();
+        int start = 0;
+        for (int n = s.indexOf(','); n >= 0; n = s.indexOf(',', start)) {
+            items.add(s.substring(start, n).trim());
+            start = n + 1;
+        }
+        items.add(s.substring(start).trim());
+        return items;
+    }
+
+    static Character parseChar(String s) {
+        if (s.length() != 1) {
+            throw new IllegalArgumentException("Cannot convert '" + s + "' to char.");
+        }
+        return s.charAt(0);
+    }
+
+    /**
+     * 先按名称精确匹配，再忽略大小写并把'-'视为'_'匹配
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    static Function<String, Object> enumConverter(Class<?> enumType) {
+        Object[] constants = enumType.getEnumConstants();
+        return s -> {
+            String name = s.trim();
+            try {
+                return Enum.valueOf((Class) enumType, name);
+            } catch (IllegalArgumentException e) {
+                String normalized = name.replace('-', '_');
+                for (Object constant : constants) {
+                    if (((Enum<?>) constant).name().equalsIgnoreCase(normalized)) {
+                        return constant;
+                    }
+                }
+                throw new IllegalArgumentException("No enum constant " + enumType.getName() + "." + name);
+            }
+        };
+    }
+
+    static final class ResolverCache {
+        // key -> 解析占位符后的值，不存在的key同样缓存，最多MAX_CACHED_VALUES个
+        final Map<String, Optional<String>> values = new ConcurrentHashMap<>();
+        // 原始值或key -> 编译后的模板
+        final Map<String, PropertyTemplate> templates = new ConcurrentHashMap<>();
+        // 所有来源的key，第一次按前缀查询时创建
+        volatile NavigableSet<String> keys;
+    }
+}
@@ -0,0 +1,140 @@
+package org.yxw.io;
+
+import jakarta.annotation.Nullable;
+import org.yxw.utils.YamlUtils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * 一层属性来源，读取时才查找，不复制来源中的所有属性。
+ */
+public abstract class PropertySource {
+
+    public static final String COMMAND_LINE = "commandLineArgs";
+    public static final String SYSTEM_PROPERTIES = "systemProperties";
+    public static final String SYSTEM_ENVIRONMENT = "systemEnvironment";
+
+    final String name;
+
+    protected PropertySource(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 返回原始值（未解析占位符），不存在返回null
+     */
+    @Nullable
+    public abstract String getProperty(String key);
+
+    public boolean containsProperty(String key) {
+        return getProperty(key) != null;
+    }
+
+    /**
+     * 所有key，不支持列举时返回空集合
+     */
+    public Set<String> getPropertyNames() {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[name=" + name + "]";
+    }
+
+    /**
+     * 通过Properties.getProperty()查找，包括Properties的defaults
+     */
+    public static PropertySource fromProperties(String name, Properties props) {
+        return new PropertySource(name) {
+            @Override
+            public String getProperty(String key) {
+                return props.getProperty(key);
+            }
+
+            @Override
+            public Set<String> getPropertyNames() {
+                return props.stringPropertyNames();
+            }
+        };
+    }
+
+    /**
+     * 非String类型的值通过toString()转换
+     */
+    public static PropertySource fromMap(String name, Map<String, ?> map) {
+        return new PropertySource(name) {
+            @Override
+            public String getProperty(String key) {
+                Object value = map.get(key);
+                return value == null ? null : value.toString();
+            }
+
+            @Override
+            public Set<String> getPropertyNames() {
+                return map.keySet();
+            }
+        };
+    }
+
+    /**
+     * 读取classpath中的YAML文件并展开为a.b.c形式的key
+     */
+    public static PropertySource fromYaml(String name, String yamlPath) {
+        return fromMap(name, YamlUtils.loadYamlAsPlainMap(yamlPath));
+    }
+
+    public static PropertySource systemProperties() {
+        return new PropertySource(SYSTEM_PROPERTIES) {
+            @Override
+            public String getProperty(String key) {
+                return System.getProperty(key);
+            }
+
+            @Override
+            public Set<String> getPropertyNames() {
+                return System.getProperties().stringPropertyNames();
+            }
+        };
+    }
+
+    public static PropertySource systemEnvironment() {
+        return new PropertySource(SYSTEM_ENVIRONMENT) {
+            @Override
+            public String getProperty(String key) {
+                return System.getenv(key);
+            }
+
+            @Override
+            public Set<String> getPropertyNames() {
+                return System.getenv().keySet();
+            }
+        };
+    }
+
+    /**
+     * 解析--key=value形式的参数，--flag等价于--flag=true，其他参数忽略
+     */
+    public static PropertySource commandLine(String[] args) {
+        Map<String, String> map = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.length() > 2) {
+                int n = arg.indexOf('=');
+                if (n < 0) {
+                    map.put(arg.substring(2), "true");
+                } else {
+                    map.put(arg.substring(2, n), arg.substring(n + 1));
+                }
+            }
+        }
+        return fromMap(COMMAND_LINE, Collections.unmodifiableMap(map));
+    }
+}
@@ -0,0 +1,171 @@
+package org.yxw.io;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 通过WatchService监视ReloadablePropertySource对应的文件，文件变化时只重新解析该文件，
+ * 存在变化的key时通过PropertySources发布PropertyChangeEvent。
+ *
+ * <code>
+ * PropertySourceWatcher watcher = new PropertySourceWatcher(sources);
+ * watcher.watch(new ReloadablePropertySource("application", Paths.get("config/application.yml")));
+ * watcher.start();
+ * </code>
+ */
+public class PropertySourceWatcher implements Closeable {
+
+    final Logger logger = LoggerFactory.getLogger(getClass());
+
+    final PropertySources propertySources;
+    final WatchService watchService;
+    // 收到事件后等待文件写入完成的时间，同时合并连续的事件
+    final long settleMillis;
+    // 目录 -> 该目录下被监视的PropertySource
+    final Map<Path, List<ReloadablePropertySource>> watched = new ConcurrentHashMap<>();
+    Thread thread;
+
+    public PropertySourceWatcher(PropertySources propertySources) throws IOException {
+        this(propertySources, 100);
+    }
+
+    public PropertySourceWatcher(PropertySources propertySources, long settleMillis) throws IOException {
+        this.propertySources = propertySources;
+        this.settleMillis = settleMillis;
+        this.watchService = FileSystems.getDefault().newWatchService();
+    }
+
+    /**
+     * 监视source对应的文件，source尚未添加到PropertySources时添加到最后，已存在同名的来源时在原位置替换
+     */
+    public synchronized void watch(ReloadablePropertySource source) throws IOException {
+        PropertySource registered = this.propertySources.get(source.getName());
+        if (registered == null) {
+            this.propertySources.addLast(source);
+        } else if (registered != source) {
+            this.propertySources.replace(source);
+            // 被替换的来源不再重新加载:
+            for (List<ReloadablePropertySource> sources : this.watched.values()) {
+                sources.remove(registered);
+            }
+        }
+        Path dir = source.getFile().getParent();
+        List<ReloadablePropertySource> sources = this.watched.get(dir);
+        if (sources == null) {
+            dir.register(this.watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            sources = new CopyOnWriteArrayList<>();
+            this.watched.put(dir, sources);
+        }
+        if (!sources.contains(source)) {
+            sources.add(source);
+        }
+    }
+
+    public synchronized void start() {
+        if (this.thread == null) {
+            this.thread = new Thread(this::run, "summer-config-watcher");
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+    }
+
+    void run() {
+        try {
+            while (true) {
+                WatchKey key = this.watchService.take();
+                Thread.sleep(this.settleMillis);
+                Path dir = (Path) key.watchable();
+                // 同一个文件的多个事件只重新解析一次:
+                Set<Path> files = new LinkedHashSet<>();
+                boolean overflow = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        overflow = true;
+                    } else {
+                        files.add(dir.resolve((Path) event.context()));
+                    }
+                }
+                if (!key.reset()) {
+                    // 目录被删除或不可访问，之后需要重新watch():
+                    logger.warn("Directory {} is no longer watched.", dir);
+                    synchronized (this) {
+                        this.watched.remove(dir);
+                    }
+                    continue;
+                }
+                if (overflow) {
+                    reloadAll(dir);
+                } else {
+                    files.forEach(this::reload);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            logger.debug("config watcher stopped.");
+        }
+    }
+
+    void reloadAll(Path dir) {
+        for (ReloadablePropertySource source : this.watched.getOrDefault(dir, new ArrayList<>())) {
+            reload(source);
+        }
+    }
+
+    void reload(Path file) {
+        for (ReloadablePropertySource source : this.watched.getOrDefault(file.getParent(), new ArrayList<>())) {
+            if (source.getFile().equals(file)) {
+                reload(source);
+            }
+        }
+    }
+
+    /**
+     * 重新解析失败时保留原来的快照，监听器抛出的异常只记录日志，不能结束监视线程
+     */
+    void reload(ReloadablePropertySource source) {
+        Set<String> changedKeys;
+        try {
+            changedKeys = source.reload();
+        } catch (RuntimeException e) {
+            logger.warn("Reload property source '" + source.getName() + "' failed.", e);
+            return;
+        }
+        if (!changedKeys.isEmpty()) {
+            logger.info("Property source '{}' reloaded, changed keys: {}", source.getName(), changedKeys);
+            try {
+                this.propertySources.changed(new PropertyChangeEvent(source.getName(), changedKeys));
+            } catch (RuntimeException e) {
+                logger.warn("Exception when notify changes of property source '" + source.getName() + "'.", e);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.watchService.close();
+        Thread t;
+        synchronized (this) {
+            t = this.thread;
+            this.thread = null;
+        }
+        if (t != null) {
+            t.interrupt();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package org.yxw.io;
+
+import jakarta.annotation.Nullable;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+/**
+ * 有序的PropertySource列表，靠前的优先，运行期间可以添加或删除。
+ *
+ * 默认顺序为：命令行参数 > 系统属性 > 环境变量 > YAML > .properties，后两者由应用通过addLast()添加。
+ */
+public class PropertySources implements Iterable<PropertySource> {
+
+    final List<PropertySource> sources = new CopyOnWriteArrayList<>();
+    // 来源发生变化时通知，例如清除PropertyResolver的缓存
+    final List<PropertyChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * 包含命令行参数、系统属性和环境变量
+     */
+    public static PropertySources standard(String[] args) {
+        PropertySources sources = new PropertySources();
+        sources.addLast(PropertySource.commandLine(args));
+        sources.addLast(PropertySource.systemProperties());
+        sources.addLast(PropertySource.systemEnvironment());
+        return sources;
+    }
+
+    public synchronized PropertySources addFirst(PropertySource source) {
+        removeIfPresent(source.getName());
+        this.sources.add(0, source);
+        changed(source.getName());
+        return this;
+    }
+
+    public synchronized PropertySources addLast(PropertySource source) {
+        removeIfPresent(source.getName());
+        this.sources.add(source);
+        changed(source.getName());
+        return this;
+    }
+
+    public synchronized PropertySources addBefore(String relativeName, PropertySource source) {
+        checkRelativeName(relativeName, source);
+        removeIfPresent(source.getName());
+        this.sources.add(indexOf(relativeName), source);
+        changed(source.getName());
+        return this;
+    }
+
+    public synchronized PropertySources addAfter(String relativeName, PropertySource source) {
+        checkRelativeName(relativeName, source);
+        removeIfPresent(source.getName());
+        this.sources.add(indexOf(relativeName) + 1, source);
+        changed(source.getName());
+        return this;
+    }
+
+    /**
+     * 用同名的PropertySource替换，位置不变
+     */
+    public synchronized PropertySources replace(PropertySource source) {
+        this.sources.set(indexOf(source.getName()), source);
+        changed(source.getName());
+        return this;
+    }
+
+    @Nullable
+    public synchronized PropertySource remove(String name) {
+        PropertySource removed = removeIfPresent(name);
+        if (removed != null) {
+            changed(name);
+        }
+        return removed;
+    }
+
+    @Nullable
+    public PropertySource get(String name) {
+        for (PropertySource source : this.sources) {
+            if (source.getName().equals(name)) {
+                return source;
+            }
+        }
+        return null;
+    }
+
+    public boolean contains(String name) {
+        return get(name) != null;
+    }
+
+    public int size() {
+        return this.sources.size();
+    }
+
+    public List<String> getNames() {
+        return this.sources.stream().map(PropertySource::getName).collect(Collectors.toList());
+    }
+
+    /**
+     * 按顺序查找原始值，不存在返回null
+     */
+    @Nullable
+    public String getProperty(String key) {
+        for (PropertySource source : this.sources) {
+            String value = source.getProperty(key);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 按添加顺序通知，PropertyResolver在创建时注册，因此总是先于之后添加的listener清除缓存
+     */
+    public void addChangeListener(PropertyChangeListener listener) {
+        this.listeners.add(listener);
+    }
+
+    public void removeChangeListener(PropertyChangeListener listener) {
+        this.listeners.remove(listener);
+    }
+
+    /**
+     * 添加、删除或替换了整个PropertySource
+     */
+    void changed(String sourceName) {
+        changed(new PropertyChangeEvent(sourceName, null));
+    }
+
+    /**
+     * 某个PropertySource的内容发生变化后调用
+     */
+    public void changed(PropertyChangeEvent event) {
+        for (PropertyChangeListener listener : this.listeners) {
+            listener.onChange(event);
+        }
+    }
+
+    @Override
+    public Iterator<PropertySource> iterator() {
+        return this.sources.iterator();
+    }
+
+    int indexOf(String name) {
+        for (int i = 0; i < this.sources.size(); i++) {
+            if (this.sources.get(i).getName().equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("PropertySource '" + name + "' not found.");
+    }
+
+    /**
+     * 在删除同名的来源之前检查，参数错误时不修改列表
+     */
+    void checkRelativeName(String relativeName, PropertySource source) {
+        if (relativeName.equals(source.getName())) {
+            throw new IllegalArgumentException("PropertySource '" + relativeName + "' cannot be added relative to itself.");
+        }
+        indexOf(relativeName);
+    }
+
+    synchronized PropertySource removeIfPresent(String name) {
+        PropertySource source = get(name);
+        if (source != null) {
+            this.sources.remove(source);
+        }
+        return source;
+    }
+}
@@ -0,0 +1,117 @@
+package org.yxw.io;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 编译后的属性值模板，由字面量和${key:default}占位符组成，例如：
+ *
+ * <code>
+ * jdbc:mysql://${db.host:localhost}:${db.port}/${db.name:${app.name}}
+ * </code>
+ *
+ * key和默认值本身也可以包含占位符。没有匹配的}的${按字面量处理。
+ */
+final class PropertyTemplate {
+
+    // 不包含占位符时的完整字符串，否则为null
+    final String literal;
+    // String或Placeholder
+    final List<Object> segments;
+
+    private PropertyTemplate(String literal, List<Object> segments) {
+        this.literal = literal;
+        this.segments = segments;
+    }
+
+    boolean isLiteral() {
+        return this.literal != null;
+    }
+
+    static PropertyTemplate compile(String s) {
+        List<Object> segments = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        int i = 0;
+        while (i < s.length()) {
+            int start = s.indexOf("${", i);
+            int end = start < 0 ? -1 : findPlaceholderEnd(s, start + 2);
+            if (end < 0) {
+                sb.append(s, i, s.length());
+                break;
+            }
+            sb.append(s, i, start);
+            if (sb.length() > 0) {
+                segments.add(sb.toString());
+                sb.setLength(0);
+            }
+            String body = s.substring(start + 2, end);
+            int n = findDefaultSeparator(body);
+            if (n < 0) {
+                // 没有默认值: ${key}
+                segments.add(new Placeholder(compile(body), null));
+            } else {
+                // 有defaultValue: ${key:default}
+                segments.add(new Placeholder(compile(body.substring(0, n)), compile(body.substring(n + 1))));
+            }
+            i = end + 1;
+        }
+        if (segments.isEmpty()) {
+            return new PropertyTemplate(sb.toString(), Collections.emptyList());
+        }
+        if (sb.length() > 0) {
+            segments.add(sb.toString());
+        }
+        return new PropertyTemplate(null, segments);
+    }
+
+    /**
+     * 与${匹配的}的位置，不存在返回-1
+     */
+    static int findPlaceholderEnd(String s, int from) {
+        int depth = 0;
+        for (int i = from; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            if (ch == '$' && i + 1 < s.length() && s.charAt(i + 1) == '{') {
+                depth++;
+                i++;
+            } else if (ch == '}') {
+                if (depth == 0) {
+                    return i;
+                }
+                depth--;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 不在嵌套占位符中的第一个:的位置，不存在返回-1
+     */
+    static int findDefaultSeparator(String body) {
+        int depth = 0;
+        for (int i = 0; i < body.length(); i++) {
+            char ch = body.charAt(i);
+            if (ch == '$' && i + 1 < body.length() && body.charAt(i + 1) == '{') {
+                depth++;
+                i++;
+            } else if (ch == '}') {
+                depth--;
+            } else if (ch == ':' && depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static final class Placeholder {
+        final PropertyTemplate key;
+        // 没有默认值时为null
+        final PropertyTemplate defaultValue;
+
+        Placeholder(PropertyTemplate key, PropertyTemplate defaultValue) {
+            this.key = key;
+            this.defaultValue = defaultValue;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package org.yxw.io;
+
+import org.yxw.utils.YamlUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 文件系统中的.yml/.yaml或.properties文件，reload()重新解析文件后整体替换不可变的快照，
+ * 读取时只需读取一次引用，不加锁。
+ */
+public class ReloadablePropertySource extends PropertySource {
+
+    final Path file;
+    final AtomicReference<Map<String, Object>> snapshot = new AtomicReference<>();
+
+    public ReloadablePropertySource(String name, Path file) {
+        super(name);
+        this.file = file.toAbsolutePath().normalize();
+        this.snapshot.set(load());
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public String getProperty(String key) {
+        Object value = this.snapshot.get().get(key);
+        return value == null ? null : value.toString();
+    }
+
+    @Override
+    public Set<String> getPropertyNames() {
+        return this.snapshot.get().keySet();
+    }
+
+    /**
+     * 重新解析文件并替换快照
+     *
+     * @return 新增、删除或值发生变化的key
+     */
+    public Set<String> reload() {
+        Map<String, Object> current = load();
+        Map<String, Object> previous = this.snapshot.getAndSet(current);
+        Set<String> changed = new HashSet<>();
+        for (Map.Entry<String, Object> entry : current.entrySet()) {
+            if (!Objects.equals(entry.getValue(), previous.get(entry.getKey()))) {
+                changed.add(entry.getKey());
+            }
+        }
+        for (String key : previous.keySet()) {
+            if (!current.containsKey(key)) {
+                changed.add(key);
+            }
+        }
+        return changed;
+    }
+
+    Map<String, Object> load() {
+        try {
+            return Collections.unmodifiableMap(parse(this.file));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 按扩展名解析.yml/.yaml或.properties文件
+     */
+    static Map<String, Object> parse(Path file) throws IOException {
+        String fileName = file.getFileName().toString();
+        if (fileName.endsWith(".yml") || fileName.endsWith(".yaml")) {
+            return YamlUtils.loadYamlAsPlainMap(file);
+        }
+        Properties props = new Properties();
+        try (InputStream input = Files.newInputStream(file)) {
+            props.load(input);
+        }
+        Map<String, Object> map = new HashMap<>();
+        for (String name : props.stringPropertyNames()) {
+            map.put(name, props.getProperty(name));
+        }
+        return map;
+    }
+}
@@ -10,15 +10,20 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.FileSystems;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 /*
 * ResourceResolver 只负责扫描并列出所有文件，由客户端觉得是找出.class文件还是.properties文件
@@ -26,15 +31,61 @@ import java.util.function.Function;
 public class ResourceResolver {
     Logger logger = LoggerFactory.getLogger(getClass());
     String basePackage;
+    // 并行扫描使用的ForkJoinPool，为null时串行扫描
+    final ForkJoinPool pool;
+    // 访问jar的Session，未指定时每次scan()结束后释放
+    final JarFileCache.Session jarSession;
+    final boolean ownJarSession;
+    // 只扫描满足条件的classpath根目录
+    Predicate<String> rootFilter = root -> true;
 
     public ResourceResolver(String basePackage) {
+        this(basePackage, null);
+    }
+
+    /**
+     * 指定ForkJoinPool时按classpath根目录和子目录并行扫描，此时mapper必须是线程安全的。
+     */
+    public ResourceResolver(String basePackage, ForkJoinPool pool) {
+        this(basePackage, pool, null);
+    }
+
+    /**
+     * 指定jarSession时由调用方负责关闭，多次扫描同一个jar时只打开一次。
+     */
+    public ResourceResolver(String basePackage, ForkJoinPool pool, JarFileCache.Session jarSession) {
         this.basePackage = basePackage;
+        this.pool = pool;
+        this.ownJarSession = jarSession == null;
+        this.jarSession = jarSession == null ? JarFileCache.getInstance().openSession(false) : jarSession;
+    }
+
+    /**
+     * 只扫描满足条件的classpath根目录，参数为getRoot()返回的字符串
+     */
+    public ResourceResolver setRootFilter(Predicate<String> rootFilter) {
+        this.rootFilter = rootFilter;
+        return this;
+    }
+
+    /**
+     * file:/app/classes/org/yxw/ -> file:/app/classes/
+     */
+    public static String getRoot(URL url, String basePackagePath) {
+        String s = url.toString();
+        if (s.endsWith("/")) {
+            s = s.substring(0, s.length() - 1);
+        }
+        return s.substring(0, s.length() - basePackagePath.length());
     }
 
     public <R> List<R> scan(Function<Resource, R> mapper) {
         String basePackagePath= this.basePackage.replace(".", "/");
         String path = basePackagePath;
         try {
+            if (this.pool != null) {
+                return scanParallel0(basePackagePath, path, mapper);
+            }
             List<R> collector = new ArrayList<>();
             scan0(basePackagePath, path, collector, mapper);
             return collector;
@@ -42,6 +93,14 @@ public class ResourceResolver {
             throw new UncheckedIOException(e);
         } catch (URISyntaxException e) {
             throw new RuntimeException(e);
+        } finally {
+            if (this.ownJarSession) {
+                try {
+                    this.jarSession.close();
+                } catch (IOException e) {
+                    logger.warn("close jar session failed.", e);
+                }
+            }
         }
     }
 
@@ -64,13 +123,18 @@ public class ResourceResolver {
         Enumeration<URL> enURL = getContextClassLoader().getResources(path);
         while (enURL.hasMoreElements()) {
             URL url = enURL.nextElement();
+            if (!this.rootFilter.test(getRoot(url, basePackage))) {
+                continue;
+            }
             URI uri = url.toURI();
             String uriString = removeTrailingSlash(uriToString(uri));
             String uriBaseStr = uriString.substring(0, uriString.length() - basePackage.length());
             if (uriBaseStr.startsWith("file:")){
                 uriBaseStr = uriBaseStr.substring(5);
             }
-            if (uriString.startsWith("jar:")) {
+            if (uriString.startsWith("jar:") && this.jarSession.isZipFileMode()) {
+                scanJarEntries(uriBaseStr, basePackage, uri, collector, mapper);
+            } else if (uriString.startsWith("jar:")) {
                 scanFile(true, uriBaseStr, jarUriToPath(basePackage, uri), collector, mapper);
             } else {
                 scanFile(false, uriBaseStr, Paths.get(uri), collector, mapper);
@@ -78,20 +142,60 @@ public class ResourceResolver {
         }
     }
 
+    /*
+    * 并行扫描：每个classpath根目录一个任务，每个子目录再拆分为子任务
+    * */
+    public <R> List<R> scanParallel0(String basePackage, String path, Function<Resource, R> mapper) throws IOException, URISyntaxException {
+        logger.debug("parallel scan path:{}", path);
+        List<ForkJoinTask<List<R>>> tasks = new ArrayList<>();
+        Enumeration<URL> enURL = getContextClassLoader().getResources(path);
+        while (enURL.hasMoreElements()) {
+            URL url = enURL.nextElement();
+            if (!this.rootFilter.test(getRoot(url, basePackage))) {
+                continue;
+            }
+            URI uri = url.toURI();
+            String uriString = removeTrailingSlash(uriToString(uri));
+            String uriBaseStr = uriString.substring(0, uriString.length() - basePackage.length());
+            if (uriBaseStr.startsWith("file:")){
+                uriBaseStr = uriBaseStr.substring(5);
+            }
+            if (uriString.startsWith("jar:") && this.jarSession.isZipFileMode()) {
+                // 中央目录已经缓存，一个jar作为一个任务即可
+                String jarBase = uriBaseStr;
+                tasks.add(ForkJoinTask.adapt(() -> {
+                    List<R> collector = new ArrayList<>();
+                    scanJarEntries(jarBase, basePackage, uri, collector, mapper);
+                    return collector;
+                }));
+            } else if (uriString.startsWith("jar:")) {
+                tasks.add(new DirectoryScanTask<>(true, removeTrailingSlash(uriBaseStr), jarUriToPath(basePackage, uri), mapper));
+            } else {
+                tasks.add(new DirectoryScanTask<>(false, removeTrailingSlash(uriBaseStr), Paths.get(uri), mapper));
+            }
+        }
+        RecursiveTask<List<R>> rootsTask = new RecursiveTask<List<R>>() {
+            @Override
+            protected List<R> compute() {
+                ForkJoinTask.invokeAll(tasks);
+                List<R> collector = new ArrayList<>();
+                for (ForkJoinTask<List<R>> task : tasks) {
+                    collector.addAll(task.join());
+                }
+                return collector;
+            }
+        };
+        // 已经运行在同一个pool中时直接执行，避免再次提交
+        return ForkJoinTask.getPool() == this.pool ? rootsTask.invoke() : this.pool.invoke(rootsTask);
+    }
+
     /*
     * 扫描文件系统中的文件资源，并将符合条件的资源收集起来。
     * */
     public <R> void scanFile(boolean isJar, String base, Path root, List<R> collector, Function<Resource, R> mapper) throws IOException {
         String baseDir = removeTrailingSlash(base);
         Files.walk(root).filter(Files::isRegularFile).forEach(file -> {
-            Resource resource = null;
-            if (isJar) {
-                resource = new Resource(baseDir, removeLeadingSlash(file.toString()));
-            } else {
-                String path = file.toString();
-                String name = removeLeadingSlash(path.substring(baseDir.length()));
-                resource = new Resource("file:" + path, name);
-            }
+            Resource resource = toResource(isJar, baseDir, file);
             logger.debug("found resource: {}", resource);
             R r = mapper.apply(resource);
             if (r != null) {
@@ -100,8 +204,38 @@ public class ResourceResolver {
         });
     }
 
+    /*
+    * 使用缓存的jar中央目录扫描，entry名称已排序，二分查找package前缀后顺序读取
+    * */
+    public <R> void scanJarEntries(String base, String basePackagePath, URI jarUri, List<R> collector, Function<Resource, R> mapper) throws IOException {
+        String baseDir = removeTrailingSlash(base);
+        String prefix = basePackagePath + "/";
+        String[] names = this.jarSession.getEntryNames(jarUri);
+        int start = Arrays.binarySearch(names, prefix);
+        if (start < 0) {
+            start = -start - 1;
+        }
+        for (int i = start; i < names.length && names[i].startsWith(prefix); i++) {
+            Resource resource = new Resource(baseDir, names[i]);
+            logger.debug("found resource: {}", resource);
+            R r = mapper.apply(resource);
+            if (r != null) {
+                collector.add(r);
+            }
+        }
+    }
+
+    Resource toResource(boolean isJar, String baseDir, Path file) {
+        if (isJar) {
+            return new Resource(baseDir, removeLeadingSlash(file.toString()));
+        }
+        String path = file.toString();
+        String name = removeLeadingSlash(path.substring(baseDir.length()));
+        return new Resource("file:" + path, name);
+    }
+
     public Path jarUriToPath(String basePackagePath, URI jarUri) throws IOException {
-        return FileSystems.newFileSystem(jarUri, Collections.emptyMap()).getPath(basePackagePath);
+        return this.jarSession.getFileSystem(jarUri).getPath(basePackagePath);
     }
 
     public String uriToString(URI uri) throws IOException  {
@@ -121,4 +255,50 @@ public class ResourceResolver {
         }
         return s;
     }
+
+    /*
+    * 扫描一个目录：当前目录下的文件直接处理，子目录fork为新的任务
+    * */
+    class DirectoryScanTask<R> extends RecursiveTask<List<R>> {
+        final boolean isJar;
+        final String baseDir;
+        final Path dir;
+        final Function<Resource, R> mapper;
+
+        DirectoryScanTask(boolean isJar, String baseDir, Path dir, Function<Resource, R> mapper) {
+            this.isJar = isJar;
+            this.baseDir = baseDir;
+            this.dir = dir;
+            this.mapper = mapper;
+        }
+
+        @Override
+        protected List<R> compute() {
+            List<R> collector = new ArrayList<>();
+            List<DirectoryScanTask<R>> subTasks = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path file : stream) {
+                    // 与Files.walk()一样不进入符号链接的目录，避免链接成环时无限递归:
+                    if (Files.isDirectory(file, LinkOption.NOFOLLOW_LINKS)) {
+                        DirectoryScanTask<R> subTask = new DirectoryScanTask<>(isJar, baseDir, file, mapper);
+                        subTask.fork();
+                        subTasks.add(subTask);
+                    } else if (Files.isRegularFile(file)) {
+                        Resource resource = toResource(isJar, baseDir, file);
+                        logger.debug("found resource: {}", resource);
+                        R r = mapper.apply(resource);
+                        if (r != null) {
+                            collector.add(r);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            for (DirectoryScanTask<R> subTask : subTasks) {
+                collector.addAll(subTask.join());
+            }
+            return collector;
+        }
+    }
 }
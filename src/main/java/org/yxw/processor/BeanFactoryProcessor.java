@@ -0,0 +1,264 @@
+package org.yxw.processor;
+
+import org.yxw.context.GeneratedFactory;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 编译期为每个组件生成&lt;类名&gt;$$SummerFactory，直接调用构造方法、@Bean方法以及init/destroy方法，运行时不再需要反射。
+ *
+ * 工厂与组件在同一个package中，因此可以调用非private的成员，private的构造方法和方法不生成，运行时仍然使用反射。
+ */
+@SupportedAnnotationTypes("*")
+public class BeanFactoryProcessor extends AbstractProcessor {
+
+    static final String BEAN_ANNOTATION = "org.yxw.annotation.Bean";
+    static final String POST_CONSTRUCT_ANNOTATION = "jakarta.annotation.PostConstruct";
+    static final String PRE_DESTROY_ANNOTATION = "jakarta.annotation.PreDestroy";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getRootElements()) {
+            collect(element);
+        }
+        // 不声明对任何注解的处理权，其他processor仍然可以处理
+        return false;
+    }
+
+    void collect(Element element) {
+        if (element.getKind() == ElementKind.CLASS && ComponentIndexProcessor.isComponent(element, new HashSet<>())) {
+            TypeElement type = (TypeElement) element;
+            if (isAccessible(type)) {
+                generate(type);
+            }
+        }
+        // 嵌套类:
+        for (Element enclosed : element.getEnclosedElements()) {
+            if (enclosed.getKind().isClass() || enclosed.getKind().isInterface()) {
+                collect(enclosed);
+            }
+        }
+    }
+
+    /**
+     * 同一package中可以访问并创建的类：非abstract，所在的类都不是private，嵌套类必须是static
+     */
+    static boolean isAccessible(TypeElement type) {
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return false;
+        }
+        for (Element e = type; e.getKind().isClass() || e.getKind().isInterface(); e = e.getEnclosingElement()) {
+            TypeElement t = (TypeElement) e;
+            if (t.getModifiers().contains(Modifier.PRIVATE)) {
+                return false;
+            }
+            if (t.getNestingKind() == NestingKind.MEMBER && !t.getModifiers().contains(Modifier.STATIC) && !t.getEnclosingElement().getKind().isInterface()) {
+                return false;
+            }
+            if (t.getNestingKind() == NestingKind.LOCAL || t.getNestingKind() == NestingKind.ANONYMOUS) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void generate(TypeElement type) {
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+        String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+        String factoryName = binaryName.substring(packageName.isEmpty() ? 0 : packageName.length() + 1) + GeneratedFactory.SUFFIX;
+        String typeName = erasure(type.asType());
+
+        StringBuilder cases = new StringBuilder(1024);
+        for (ExecutableElement ctor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (!ctor.getModifiers().contains(Modifier.PRIVATE)) {
+                appendCase(cases, key("<init>", ctor), "return new " + typeName + "(" + arguments(ctor) + ");");
+            }
+        }
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            if (method.getModifiers().contains(Modifier.PRIVATE)) {
+                continue;
+            }
+            boolean isStatic = method.getModifiers().contains(Modifier.STATIC);
+            String target = isStatic ? typeName : "((" + typeName + ") target)";
+            String methodKey = key(method.getSimpleName().toString(), method);
+            AnnotationMirror bean = findAnnotation(method, BEAN_ANNOTATION);
+            if (bean != null) {
+                appendCase(cases, methodKey, "return " + target + "." + method.getSimpleName() + "(" + arguments(method) + ");");
+                appendLifecycleCase(cases, methodKey, method, bean, "initMethod");
+                appendLifecycleCase(cases, methodKey, method, bean, "destroyMethod");
+            } else if (!isStatic && method.getParameters().isEmpty()
+                    && (findAnnotation(method, POST_CONSTRUCT_ANNOTATION) != null || findAnnotation(method, PRE_DESTROY_ANNOTATION) != null)) {
+                appendCase(cases, methodKey, target + "." + method.getSimpleName() + "();\n                        return null;");
+            }
+        }
+
+        StringBuilder sb = new StringBuilder(2048);
+        if (!packageName.isEmpty()) {
+            sb.append("package ").append(packageName).append(";\n\n");
+        }
+        sb.append("/**\n * Generated by ").append(getClass().getName()).append(" for ").append(type.getQualifiedName()).append(".\n */\n");
+        sb.append("@SuppressWarnings({ \"unchecked\", \"rawtypes\" })\n");
+        sb.append("public final class ").append(factoryName).append(" extends org.yxw.context.GeneratedFactory {\n\n");
+        sb.append("    @Override\n    public org.yxw.context.Invoker getInvoker(String key) {\n");
+        sb.append("        switch (key) {\n").append(cases);
+        sb.append("            default:\n                return null;\n        }\n    }\n}\n");
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile((packageName.isEmpty() ? "" : packageName + ".") + factoryName, type);
+            try (Writer writer = file.openWriter()) {
+                writer.write(sb.toString());
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write factory of " + binaryName + ": " + e, type);
+        }
+    }
+
+    /**
+     * 生成@Bean(initMethod/destroyMethod)指定的方法，方法必须是返回类型中声明的非private无参数方法
+     */
+    void appendLifecycleCase(StringBuilder cases, String methodKey, ExecutableElement method, AnnotationMirror bean, String attribute) {
+        String methodName = getStringValue(bean, attribute);
+        if (methodName.isEmpty() || method.getReturnType().getKind() != TypeKind.DECLARED) {
+            return;
+        }
+        TypeElement returnType = (TypeElement) ((DeclaredType) method.getReturnType()).asElement();
+        PackageElement pkg = processingEnv.getElementUtils().getPackageOf(method);
+        for (ExecutableElement m : ElementFilter.methodsIn(returnType.getEnclosedElements())) {
+            if (m.getSimpleName().contentEquals(methodName) && m.getParameters().isEmpty() && !m.getModifiers().contains(Modifier.STATIC)
+                    && isCallable(m, returnType, pkg)) {
+                appendCase(cases, methodKey + "#" + attribute,
+                        "((" + erasure(method.getReturnType()) + ") target)." + methodName + "();\n                        return null;");
+                return;
+            }
+        }
+    }
+
+    /**
+     * 从pkg中可以调用：public类的public方法，或者同一package中非private的方法
+     */
+    boolean isCallable(ExecutableElement method, TypeElement owner, PackageElement pkg) {
+        if (method.getModifiers().contains(Modifier.PRIVATE) || !isAccessible(owner) && !owner.getModifiers().contains(Modifier.ABSTRACT)) {
+            return false;
+        }
+        if (processingEnv.getElementUtils().getPackageOf(owner).equals(pkg)) {
+            return true;
+        }
+        for (Element e = owner; e.getKind().isClass() || e.getKind().isInterface(); e = e.getEnclosingElement()) {
+            if (!e.getModifiers().contains(Modifier.PUBLIC)) {
+                return false;
+            }
+        }
+        return method.getModifiers().contains(Modifier.PUBLIC);
+    }
+
+    static void appendCase(StringBuilder cases, String key, String body) {
+        cases.append("            case \"").append(key).append("\":\n");
+        cases.append("                return new org.yxw.context.Invoker() {\n");
+        cases.append("                    @Override\n");
+        cases.append("                    public Object invoke(Object target, Object[] args) throws Throwable {\n");
+        cases.append("                        ").append(body).append('\n');
+        cases.append("                    }\n");
+        cases.append("                };\n");
+    }
+
+    /**
+     * 与GeneratedFactory.signature()一致的key
+     */
+    String key(String name, ExecutableElement executable) {
+        StringBuilder sb = new StringBuilder(name).append('(');
+        List<? extends VariableElement> params = executable.getParameters();
+        for (int i = 0; i < params.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(typeName(processingEnv.getTypeUtils().erasure(params.get(i).asType())));
+        }
+        return sb.append(')').toString();
+    }
+
+    /**
+     * Class.getTypeName()：嵌套类为a.b.Outer$Inner，数组为a.b.C[]
+     */
+    String typeName(TypeMirror type) {
+        switch (type.getKind()) {
+            case ARRAY:
+                return typeName(((ArrayType) type).getComponentType()) + "[]";
+            case DECLARED:
+                return processingEnv.getElementUtils().getBinaryName((TypeElement) ((DeclaredType) type).asElement()).toString();
+            default:
+                return type.toString();
+        }
+    }
+
+    String arguments(ExecutableElement executable) {
+        StringBuilder sb = new StringBuilder();
+        List<? extends VariableElement> params = executable.getParameters();
+        for (int i = 0; i < params.size(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            TypeMirror type = params.get(i).asType();
+            // 基本类型先转换为包装类型，再自动拆箱:
+            String cast = type.getKind().isPrimitive() ? processingEnv.getTypeUtils().boxedClass((javax.lang.model.type.PrimitiveType) type).getQualifiedName().toString()
+                    : erasure(type);
+            sb.append('(').append(cast).append(") args[").append(i).append(']');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 源代码中的类型名称，泛型参数被擦除
+     */
+    String erasure(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    static AnnotationMirror findAnnotation(Element element, String annotationName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationName)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    static String getStringValue(AnnotationMirror mirror, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return String.valueOf(entry.getValue().getValue());
+            }
+        }
+        return "";
+    }
+}
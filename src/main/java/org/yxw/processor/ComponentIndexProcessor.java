@@ -0,0 +1,138 @@
+package org.yxw.processor;
+
+import org.yxw.context.ComponentIndex;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 编译期生成组件索引META-INF/summer.components，每行一个直接或间接标注了@Component的类名，
+ * 运行时由ComponentIndex读取，从而跳过classpath扫描。
+ *
+ * 增量编译时只编译部分源文件，因此与输出目录中已有的索引合并：本次编译的类以本次结果为准，
+ * 其他类只要仍然可以解析就保留。
+ */
+@SupportedAnnotationTypes("*")
+public class ComponentIndexProcessor extends AbstractProcessor {
+
+    static final String COMPONENT_ANNOTATION = "org.yxw.annotation.Component";
+
+    private final Set<String> components = new TreeSet<>();
+    // 本次编译的所有类
+    private final Set<String> compiled = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getRootElements()) {
+            collect(element);
+        }
+        // 没有组件时也写入空的索引，覆盖上一次编译留下的索引文件:
+        if (roundEnv.processingOver()) {
+            writeIndex();
+        }
+        // 不声明对任何注解的处理权，其他processor仍然可以处理
+        return false;
+    }
+
+    void collect(Element element) {
+        if (element.getKind().isClass() || element.getKind().isInterface()) {
+            String name = processingEnv.getElementUtils().getBinaryName((TypeElement) element).toString();
+            compiled.add(name);
+            if (element.getKind() == ElementKind.CLASS && isComponent(element, new HashSet<>())) {
+                components.add(name);
+            }
+        }
+        // 嵌套类:
+        for (Element enclosed : element.getEnclosedElements()) {
+            if (enclosed.getKind().isClass() || enclosed.getKind().isInterface()) {
+                collect(enclosed);
+            }
+        }
+    }
+
+    /**
+     * 递归查找@Component，包括@Configuration以及自定义注解上的@Component
+     */
+    static boolean isComponent(Element element, Set<String> visited) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement annoType = (TypeElement) mirror.getAnnotationType().asElement();
+            String name = annoType.getQualifiedName().toString();
+            if (COMPONENT_ANNOTATION.equals(name)) {
+                return true;
+            }
+            if (name.startsWith("java.lang.annotation.") || !visited.add(name)) {
+                continue;
+            }
+            if (isComponent(annoType, visited)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 读取输出目录中已有的索引，不存在时返回空集合
+     */
+    Set<String> readExistingIndex() {
+        Set<String> names = new TreeSet<>();
+        try {
+            FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", ComponentIndex.INDEX_LOCATION);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.openInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (!line.isEmpty() && !line.startsWith("#")) {
+                        names.add(line);
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // 第一次编译:
+        }
+        return names;
+    }
+
+    void writeIndex() {
+        for (String name : readExistingIndex()) {
+            // 本次编译的类可能已经删除了@Component，删除或改名的类无法解析:
+            if (!compiled.contains(name) && processingEnv.getElementUtils().getTypeElement(name.replace('$', '.')) != null) {
+                components.add(name);
+            }
+        }
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", ComponentIndex.INDEX_LOCATION);
+            try (Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+                writer.write("# generated by " + getClass().getName() + "\n");
+                for (String component : components) {
+                    writer.write(component);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write " + ComponentIndex.INDEX_LOCATION + ": " + e);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.yxw.utils;
+
+import jakarta.annotation.Nullable;
+
+import java.util.List;
+
+/**
+ * 从.class文件字节中读取到的类信息，不需要加载类
+ */
+public class ClassFileMetadata {
+
+    static final int ACC_INTERFACE = 0x0200;
+    static final int ACC_ABSTRACT = 0x0400;
+    static final int ACC_ANNOTATION = 0x2000;
+    static final int ACC_ENUM = 0x4000;
+
+    private final String className;
+    private final String superClassName;
+    private final int accessFlags;
+    private final List<String> annotationTypes;
+
+    ClassFileMetadata(String className, String superClassName, int accessFlags, List<String> annotationTypes) {
+        this.className = className;
+        this.superClassName = superClassName;
+        this.accessFlags = accessFlags;
+        this.annotationTypes = annotationTypes;
+    }
+
+    /**
+     * 类名，如org.yxw.scan.nested.OuterBean$NestedBean
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * 父类名，java.lang.Object的父类为null
+     */
+    @Nullable
+    public String getSuperClassName() {
+        return superClassName;
+    }
+
+    public int getAccessFlags() {
+        return accessFlags;
+    }
+
+    /**
+     * 类上直接标注的运行时注解的类名
+     */
+    public List<String> getAnnotationTypes() {
+        return annotationTypes;
+    }
+
+    public boolean isInterface() {
+        return (accessFlags & ACC_INTERFACE) != 0;
+    }
+
+    public boolean isAbstract() {
+        return (accessFlags & ACC_ABSTRACT) != 0;
+    }
+
+    public boolean isAnnotation() {
+        return (accessFlags & ACC_ANNOTATION) != 0;
+    }
+
+    public boolean isEnum() {
+        return (accessFlags & ACC_ENUM) != 0;
+    }
+
+    @Override
+    public String toString() {
+        return "ClassFileMetadata [className=" + className + ", superClassName=" + superClassName + ", accessFlags=0x" + Integer.toHexString(accessFlags)
+                + ", annotationTypes=" + annotationTypes + "]";
+    }
+}
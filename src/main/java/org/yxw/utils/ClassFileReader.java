@@ -0,0 +1,282 @@
+package org.yxw.utils;
+
+import jakarta.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yxw.exception.ClassFileFormatException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 轻量的.class文件解析器，只读取常量池、访问标志、父类和类上的RuntimeVisibleAnnotations，
+ * 用于在不加载类（不执行static初始化）的情况下判断类上的注解。
+ *
+ * 读取前检查剩余长度和常量池项的类型，格式错误时统一抛出ClassFileFormatException。
+ *
+ * 参考JVM规范第4章 The class File Format.
+ */
+public class ClassFileReader {
+
+    static final Logger logger = LoggerFactory.getLogger(ClassFileReader.class);
+
+    static final int MAGIC = 0xCAFEBABE;
+
+    // 常量池tag:
+    static final int CONSTANT_UTF8 = 1;
+    static final int CONSTANT_INTEGER = 3;
+    static final int CONSTANT_FLOAT = 4;
+    static final int CONSTANT_LONG = 5;
+    static final int CONSTANT_DOUBLE = 6;
+    static final int CONSTANT_CLASS = 7;
+    static final int CONSTANT_STRING = 8;
+    static final int CONSTANT_FIELDREF = 9;
+    static final int CONSTANT_METHODREF = 10;
+    static final int CONSTANT_INTERFACE_METHODREF = 11;
+    static final int CONSTANT_NAME_AND_TYPE = 12;
+    static final int CONSTANT_METHOD_HANDLE = 15;
+    static final int CONSTANT_METHOD_TYPE = 16;
+    static final int CONSTANT_DYNAMIC = 17;
+    static final int CONSTANT_INVOKE_DYNAMIC = 18;
+    static final int CONSTANT_MODULE = 19;
+    static final int CONSTANT_PACKAGE = 20;
+
+    static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+
+    /**
+     * 从classpath读取类文件，找不到或无法解析（例如更新版本的class文件格式）时返回null
+     */
+    @Nullable
+    public static ClassFileMetadata read(ClassLoader classLoader, String className) {
+        String path = className.replace('.', '/') + ".class";
+        try (InputStream input = classLoader.getResourceAsStream(path)) {
+            if (input == null) {
+                return null;
+            }
+            return read(ClassPathUtils.readAllBytes(input));
+        } catch (IOException e) {
+            return null;
+        } catch (ClassFileFormatException e) {
+            logger.debug("Cannot parse class file of {}: {}", className, e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * @throws ClassFileFormatException 不是class文件或格式错误
+     */
+    public static ClassFileMetadata read(byte[] data) {
+        return read(ByteBuffer.wrap(data));
+    }
+
+    static ClassFileMetadata read(ByteBuffer buffer) {
+        if (u4(buffer) != MAGIC) {
+            throw new ClassFileFormatException("Not a class file.");
+        }
+        // minor_version, major_version:
+        skip(buffer, 4);
+        // 常量池只保留UTF8和Class，其他类型跳过:
+        int cpCount = u2(buffer);
+        Object[] pool = new Object[cpCount];
+        for (int i = 1; i < cpCount; i++) {
+            int tag = u1(buffer);
+            switch (tag) {
+                case CONSTANT_UTF8:
+                    pool[i] = readUtf8(buffer);
+                    break;
+                case CONSTANT_CLASS:
+                    // 保存name_index，读取完常量池后再解析
+                    pool[i] = u2(buffer);
+                    break;
+                case CONSTANT_STRING:
+                case CONSTANT_METHOD_TYPE:
+                case CONSTANT_MODULE:
+                case CONSTANT_PACKAGE:
+                    skip(buffer, 2);
+                    break;
+                case CONSTANT_METHOD_HANDLE:
+                    skip(buffer, 3);
+                    break;
+                case CONSTANT_INTEGER:
+                case CONSTANT_FLOAT:
+                case CONSTANT_FIELDREF:
+                case CONSTANT_METHODREF:
+                case CONSTANT_INTERFACE_METHODREF:
+                case CONSTANT_NAME_AND_TYPE:
+                case CONSTANT_DYNAMIC:
+                case CONSTANT_INVOKE_DYNAMIC:
+                    skip(buffer, 4);
+                    break;
+                case CONSTANT_LONG:
+                case CONSTANT_DOUBLE:
+                    skip(buffer, 8);
+                    // long和double占用两个常量池位置
+                    i++;
+                    break;
+                default:
+                    throw new ClassFileFormatException("Unknown constant pool tag: " + tag);
+            }
+        }
+        int accessFlags = u2(buffer);
+        String className = classNameAt(pool, u2(buffer));
+        int superIndex = u2(buffer);
+        String superClassName = superIndex == 0 ? null : classNameAt(pool, superIndex);
+        // interfaces:
+        skip(buffer, 2 * u2(buffer));
+        // fields, methods:
+        skipMembers(buffer);
+        skipMembers(buffer);
+        // 类的attributes:
+        List<String> annotationTypes = Collections.emptyList();
+        int attrCount = u2(buffer);
+        for (int i = 0; i < attrCount; i++) {
+            String attrName = utf8At(pool, u2(buffer));
+            int length = u4(buffer);
+            if (RUNTIME_VISIBLE_ANNOTATIONS.equals(attrName)) {
+                annotationTypes = readAnnotationTypes(buffer, pool);
+            } else {
+                skip(buffer, length);
+            }
+        }
+        return new ClassFileMetadata(className, superClassName, accessFlags, annotationTypes);
+    }
+
+    static List<String> readAnnotationTypes(ByteBuffer buffer, Object[] pool) {
+        int count = u2(buffer);
+        List<String> types = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            types.add(descriptorToClassName(utf8At(pool, u2(buffer))));
+            skipElementValuePairs(buffer);
+        }
+        return types;
+    }
+
+    static void skipElementValuePairs(ByteBuffer buffer) {
+        int pairs = u2(buffer);
+        for (int i = 0; i < pairs; i++) {
+            // element_name_index:
+            skip(buffer, 2);
+            skipElementValue(buffer);
+        }
+    }
+
+    static void skipElementValue(ByteBuffer buffer) {
+        int tag = u1(buffer);
+        switch (tag) {
+            case 'B':
+            case 'C':
+            case 'D':
+            case 'F':
+            case 'I':
+            case 'J':
+            case 'S':
+            case 'Z':
+            case 's':
+            case 'c':
+                skip(buffer, 2);
+                break;
+            case 'e':
+                skip(buffer, 4);
+                break;
+            case '@':
+                // 嵌套注解: type_index + element_value_pairs
+                skip(buffer, 2);
+                skipElementValuePairs(buffer);
+                break;
+            case '[':
+                int n = u2(buffer);
+                for (int i = 0; i < n; i++) {
+                    skipElementValue(buffer);
+                }
+                break;
+            default:
+                throw new ClassFileFormatException("Unknown element value tag: " + (char) tag);
+        }
+    }
+
+    static void skipMembers(ByteBuffer buffer) {
+        int count = u2(buffer);
+        for (int i = 0; i < count; i++) {
+            // access_flags, name_index, descriptor_index:
+            skip(buffer, 6);
+            int attrCount = u2(buffer);
+            for (int j = 0; j < attrCount; j++) {
+                skip(buffer, 2);
+                skip(buffer, u4(buffer));
+            }
+        }
+    }
+
+    static String classNameAt(Object[] pool, int index) {
+        Object entry = index > 0 && index < pool.length ? pool[index] : null;
+        if (!(entry instanceof Integer)) {
+            throw new ClassFileFormatException("Constant pool entry #" + index + " is not CONSTANT_Class.");
+        }
+        return utf8At(pool, (Integer) entry).replace('/', '.');
+    }
+
+    static String utf8At(Object[] pool, int index) {
+        Object entry = index > 0 && index < pool.length ? pool[index] : null;
+        if (!(entry instanceof String)) {
+            throw new ClassFileFormatException("Constant pool entry #" + index + " is not CONSTANT_Utf8.");
+        }
+        return (String) entry;
+    }
+
+    /**
+     * Lorg/yxw/annotation/Component; -> org.yxw.annotation.Component
+     */
+    static String descriptorToClassName(String descriptor) {
+        if (descriptor.length() < 3 || descriptor.charAt(0) != 'L' || descriptor.charAt(descriptor.length() - 1) != ';') {
+            throw new ClassFileFormatException("Invalid annotation descriptor: " + descriptor);
+        }
+        return descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
+    }
+
+    /**
+     * 常量池使用modified UTF-8，类名和注解描述符通常为ASCII，按UTF-8解码即可
+     */
+    static String readUtf8(ByteBuffer buffer) {
+        int length = u2(buffer);
+        require(buffer, length);
+        String s = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        skip(buffer, length);
+        return s;
+    }
+
+    static int u1(ByteBuffer buffer) {
+        require(buffer, 1);
+        return buffer.get() & 0xff;
+    }
+
+    static int u2(ByteBuffer buffer) {
+        require(buffer, 2);
+        return buffer.getShort() & 0xffff;
+    }
+
+    /**
+     * u4按有符号int返回，作为长度时由skip()检查是否为负数
+     */
+    static int u4(ByteBuffer buffer) {
+        require(buffer, 4);
+        return buffer.getInt();
+    }
+
+    static void require(ByteBuffer buffer, int n) {
+        if (n < 0 || buffer.remaining() < n) {
+            throw new ClassFileFormatException("Unexpected end of class file at offset " + buffer.position() + ".");
+        }
+    }
+
+    static void skip(ByteBuffer buffer, int n) {
+        require(buffer, n);
+        // 转为Buffer调用，避免在JDK 9+编译后于JDK 8运行时找不到ByteBuffer.position(int)
+        ((Buffer) buffer).position(buffer.position() + n);
+    }
+}
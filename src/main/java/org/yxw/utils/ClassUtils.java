@@ -8,7 +8,11 @@ import org.yxw.exception.BeanDefinitionException;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 public class ClassUtils {
@@ -33,21 +37,86 @@ public class ClassUtils {
      * public class Hello {}
      * </code>
      */
+    @SuppressWarnings("unchecked")
     public static <A extends Annotation> A findAnnotation(Class<?> target, Class<A> annoClass) {
-        A a = target.getAnnotation(annoClass);
-        for (Annotation annotation : target.getAnnotations()) {
+        Object found = getAnnotationClosure(target).get(annoClass);
+        if (found instanceof DuplicateAnnotation) {
+            throw new BeanDefinitionException(((DuplicateAnnotation) found).message);
+        }
+        return (A) found;
+    }
+
+    // Class或Annotation类型 -> 直接和间接标注的所有注解，查找结果（包括找不到的情况）只计算一次。
+    // 缓存保存在Class中而不是静态Map中，不会阻止卸载ClassLoader:
+    static volatile ClassValue<Map<Class<?>, Object>> annotationClosures = newAnnotationClosures();
+
+    /**
+     * 清除注解缓存，ClassValue不能清空，替换为新的实例
+     */
+    public static void clearCache() {
+        annotationClosures = newAnnotationClosures();
+    }
+
+    static ClassValue<Map<Class<?>, Object>> newAnnotationClosures() {
+        return new ClassValue<Map<Class<?>, Object>>() {
+            @Override
+            protected Map<Class<?>, Object> computeValue(Class<?> type) {
+                return computeAnnotationClosure(type, new HashSet<>());
+            }
+        };
+    }
+
+    static Map<Class<?>, Object> getAnnotationClosure(Class<?> target) {
+        return annotationClosures.get(target);
+    }
+
+    /**
+     * 计算target上直接标注的注解，以及递归通过元注解标注的注解。
+     * 同一个注解通过多个路径找到时记录为DuplicateAnnotation，visiting用于避免注解之间循环标注时无限递归。
+     *
+     * 元注解的结果在递归中直接计算而不读取缓存，否则循环标注时ClassValue会在computeValue()中重入同一个类型
+     */
+    static Map<Class<?>, Object> computeAnnotationClosure(Class<?> target, Set<Class<?>> visiting) {
+        visiting.add(target);
+        Map<Class<?>, Object> closure = new HashMap<>();
+        Annotation[] annotations = target.getAnnotations();
+        for (Annotation annotation : annotations) {
+            closure.put(annotation.annotationType(), annotation);
+        }
+        for (Annotation annotation : annotations) {
             Class<? extends Annotation> annoType = annotation.annotationType();
-            if (!annoType.getPackage().getName().equals("java.lang.annotation")) {
-                A found = findAnnotation(annoType, annoClass);
-                if (found != null) {
-                    if (a != null) {
-                        throw new BeanDefinitionException("Duplicate @" + annoClass.getSimpleName() + " found on class " + target.getSimpleName());
-                    }
-                    a = found;
+            if (annoType.getPackage().getName().equals("java.lang.annotation")) {
+                continue;
+            }
+            if (visiting.contains(annoType)) {
+                // 循环标注，外层已经在计算该注解:
+                continue;
+            }
+            for (Map.Entry<Class<?>, Object> entry : computeAnnotationClosure(annoType, visiting).entrySet()) {
+                Class<?> type = entry.getKey();
+                Object existing = closure.get(type);
+                if (existing instanceof DuplicateAnnotation) {
+                    continue;
+                }
+                if (entry.getValue() instanceof DuplicateAnnotation) {
+                    closure.put(type, entry.getValue());
+                } else if (existing != null) {
+                    closure.put(type, new DuplicateAnnotation("Duplicate @" + type.getSimpleName() + " found on class " + target.getSimpleName()));
+                } else {
+                    closure.put(type, entry.getValue());
                 }
             }
         }
-        return a;
+        visiting.remove(target);
+        return closure;
+    }
+
+    static class DuplicateAnnotation {
+        final String message;
+
+        DuplicateAnnotation(String message) {
+            this.message = message;
+        }
     }
 
     /**
@@ -128,4 +197,15 @@ public class ClassUtils {
         }
         throw new BeanDefinitionException(String.format("Multiple methods with @%s found in class: %s", annoClass.getSimpleName(), clazz.getName()));
     }
+
+    /**
+     * Get non-arg method by method name. Not search in super class.
+     */
+    public static Method getNamedMethod(Class<?> clazz, String methodName) {
+        try {
+            return clazz.getDeclaredMethod(methodName);
+        } catch (ReflectiveOperationException e) {
+            throw new BeanDefinitionException(String.format("Method '%s' not found in class: %s", methodName, clazz.getName()));
+        }
+    }
 }
@@ -0,0 +1,249 @@
+package org.yxw.utils;
+
+import org.yaml.snakeyaml.events.AliasEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.NodeEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * 根据SnakeYAML的解析事件把YAML直接展开为a.b.c形式的key，不创建中间的对象树。
+ *
+ * 所有key共用一个StringBuilder，每层mapping只记录前缀长度。标量值为String，
+ * 序列作为List整体输出（序列中的元素会被创建），锚点记录为事件并在引用处重放。
+ *
+ * 与SnakeYAML的LoaderOptions.maxAliasesForCollections相同，限制mapping和序列的引用次数，
+ * 由于重放时嵌套的引用也会被计数，层层引用的“alias炸弹”会在展开前被拒绝。
+ */
+final class YamlEventFlattener {
+
+    final BiConsumer<String, Object> sink;
+    final int maxAliasesForCollections;
+    int aliasesForCollections;
+    final StringBuilder key = new StringBuilder();
+    final Deque<MappingFrame> frames = new ArrayDeque<>();
+    // 正在创建的序列，不在序列中时为null
+    TreeBuilder tree;
+    boolean documentEnded;
+
+    // 锚点 -> 该节点的事件
+    final Map<String, List<Event>> anchors = new HashMap<>();
+    final List<Recorder> recorders = new ArrayList<>();
+
+    YamlEventFlattener(BiConsumer<String, Object> sink, int maxAliasesForCollections) {
+        this.sink = sink;
+        this.maxAliasesForCollections = maxAliasesForCollections;
+    }
+
+    void flatten(Iterable<Event> events) {
+        Iterator<Event> it = events.iterator();
+        // 只读取第一个文档:
+        while (!this.documentEnded && it.hasNext()) {
+            handle(it.next());
+        }
+    }
+
+    void handle(Event event) {
+        if (event instanceof AliasEvent) {
+            String anchor = ((AliasEvent) event).getAnchor();
+            List<Event> recorded = this.anchors.get(anchor);
+            if (recorded == null) {
+                throw new IllegalArgumentException("Unknown or recursive alias: *" + anchor);
+            }
+            // 标量只有一个事件:
+            if (recorded.size() > 1 && ++this.aliasesForCollections > this.maxAliasesForCollections) {
+                throw new IllegalArgumentException("Number of aliases for non-scalar nodes exceeds the specified max=" + this.maxAliasesForCollections);
+            }
+            for (Event e : recorded) {
+                handle(e);
+            }
+            return;
+        }
+        record(event);
+        if (this.tree != null) {
+            handleInSequence(event);
+            return;
+        }
+        switch (event.getEventId()) {
+            case DocumentEnd:
+                this.documentEnded = true;
+                break;
+            case MappingStart:
+                if (!this.frames.isEmpty()) {
+                    requireValue(event);
+                    this.key.append('.');
+                }
+                this.frames.push(new MappingFrame(this.key.length()));
+                break;
+            case MappingEnd:
+                this.frames.pop();
+                if (!this.frames.isEmpty()) {
+                    this.frames.peek().expectingKey = true;
+                }
+                break;
+            case Scalar:
+                String value = ((ScalarEvent) event).getValue();
+                MappingFrame frame = requireFrame(event);
+                if (frame.expectingKey) {
+                    this.key.setLength(frame.base);
+                    this.key.append(value);
+                    frame.expectingKey = false;
+                } else {
+                    this.sink.accept(this.key.toString(), value);
+                    frame.expectingKey = true;
+                }
+                break;
+            case SequenceStart:
+                requireValue(event);
+                this.tree = new TreeBuilder();
+                this.tree.start(new ArrayList<>());
+                break;
+            default:
+                break;
+        }
+    }
+
+    void handleInSequence(Event event) {
+        Object done = null;
+        switch (event.getEventId()) {
+            case Scalar:
+                this.tree.add(((ScalarEvent) event).getValue());
+                break;
+            case MappingStart:
+                this.tree.start(new LinkedHashMap<String, Object>());
+                break;
+            case SequenceStart:
+                this.tree.start(new ArrayList<>());
+                break;
+            case MappingEnd:
+            case SequenceEnd:
+                done = this.tree.end();
+                break;
+            default:
+                break;
+        }
+        if (done != null) {
+            this.tree = null;
+            this.sink.accept(this.key.toString(), done);
+            this.frames.peek().expectingKey = true;
+        }
+    }
+
+    MappingFrame requireFrame(Event event) {
+        if (this.frames.isEmpty()) {
+            throw new IllegalArgumentException("YAML root must be a mapping: " + event.getStartMark());
+        }
+        return this.frames.peek();
+    }
+
+    void requireValue(Event event) {
+        if (requireFrame(event).expectingKey) {
+            throw new IllegalArgumentException("YAML key must be a scalar: " + event.getStartMark());
+        }
+    }
+
+    /**
+     * 把事件追加到所有未结束的锚点，节点结束时保存该锚点
+     */
+    void record(Event event) {
+        Event.ID id = event.getEventId();
+        int delta = id == Event.ID.MappingStart || id == Event.ID.SequenceStart ? 1 : (id == Event.ID.MappingEnd || id == Event.ID.SequenceEnd ? -1 : 0);
+        for (Iterator<Recorder> it = this.recorders.iterator(); it.hasNext();) {
+            Recorder recorder = it.next();
+            recorder.events.add(event);
+            recorder.depth += delta;
+            if (recorder.depth == 0) {
+                this.anchors.put(recorder.anchor, recorder.events);
+                it.remove();
+            }
+        }
+        if (event instanceof NodeEvent && ((NodeEvent) event).getAnchor() != null) {
+            String anchor = ((NodeEvent) event).getAnchor();
+            List<Event> events = new ArrayList<>();
+            events.add(event);
+            if (delta == 0) {
+                this.anchors.put(anchor, events);
+            } else {
+                this.recorders.add(new Recorder(anchor, events));
+            }
+        }
+    }
+
+    static final class MappingFrame {
+        // key前缀的长度
+        final int base;
+        boolean expectingKey = true;
+
+        MappingFrame(int base) {
+            this.base = base;
+        }
+    }
+
+    static final class Recorder {
+        final String anchor;
+        final List<Event> events;
+        int depth = 1;
+
+        Recorder(String anchor, List<Event> events) {
+            this.anchor = anchor;
+            this.events = events;
+        }
+    }
+
+    /**
+     * 创建序列的值，mapping创建为LinkedHashMap，序列创建为ArrayList
+     */
+    static final class TreeBuilder {
+        final List<Object> containers = new ArrayList<>();
+        // 每个mapping等待值的key，等待key时为null
+        final List<String> keys = new ArrayList<>();
+
+        void start(Object container) {
+            this.containers.add(container);
+            this.keys.add(null);
+        }
+
+        @SuppressWarnings("unchecked")
+        void add(Object value) {
+            int top = this.containers.size() - 1;
+            Object container = this.containers.get(top);
+            if (container instanceof List) {
+                ((List<Object>) container).add(value);
+                return;
+            }
+            String k = this.keys.get(top);
+            if (k == null) {
+                if (!(value instanceof String)) {
+                    throw new IllegalArgumentException("YAML key must be a scalar.");
+                }
+                this.keys.set(top, (String) value);
+            } else {
+                ((Map<String, Object>) container).put(k, value);
+                this.keys.set(top, null);
+            }
+        }
+
+        /**
+         * 结束当前容器，最外层结束时返回创建的值，否则返回null
+         */
+        Object end() {
+            int top = this.containers.size() - 1;
+            Object container = this.containers.remove(top);
+            this.keys.remove(top);
+            if (this.containers.isEmpty()) {
+                return container;
+            }
+            add(container);
+            return null;
+        }
+    }
+}
@@ -5,48 +5,79 @@ import org.yaml.snakeyaml.DumperOptions;
 import org.yaml.snakeyaml.LoaderOptions;
 import org.yaml.snakeyaml.Yaml;
 import org.yaml.snakeyaml.constructor.Constructor;
+import org.yaml.snakeyaml.reader.UnicodeReader;
 import org.yaml.snakeyaml.representer.Representer;
 import org.yxw.io.NoImplicitResolver;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
 
 @SuppressWarnings("unused")
 public class YamlUtils {
 
-    @SuppressWarnings("unchecked")
+    /**
+     * flattenYaml()允许的最大字符数，默认64M，可以通过系统属性修改
+     */
+    public static final String CODE_POINT_LIMIT_PROPERTY = "summer.yaml.code-point-limit";
+    static final int DEFAULT_CODE_POINT_LIMIT = 64 * 1024 * 1024;
+
     public static Map<String, Object> loadYaml(String filePath) {
+        return ClassPathUtils.readInputStream(filePath, YamlUtils::loadYaml);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> loadYaml(InputStream input) {
         LoaderOptions loaderOptions = new LoaderOptions();
         DumperOptions dumperOptions = new DumperOptions();
         Representer representer = new Representer(dumperOptions);
         NoImplicitResolver resolver = new NoImplicitResolver();
         Yaml yaml = new Yaml(new Constructor(loaderOptions), representer, dumperOptions, loaderOptions, resolver);
-        return ClassPathUtils.readInputStream(filePath, (input) ->{
-            return (Map<String, Object>) yaml.load(input);
-        });
+        return (Map<String, Object>) yaml.load(input);
     }
 
     public static Map<String, Object> loadYamlAsPlainMap(String filePath) {
-        Map<String, Object> map = loadYaml(filePath);
         Map<String, Object> plain = new LinkedHashMap<>();
-        convertToPlainMap(map, plain, "");
+        ClassPathUtils.readInputStream(filePath, (input) -> {
+            flattenYaml(input, plain::put);
+            return null;
+        });
         return plain;
     }
 
-    private static void convertToPlainMap(Map<String, Object> source, Map<String, Object> plain, String prefix) {
-        for (String key : source.keySet()){
-            Object value = source.get(key);
-            if (value instanceof Map){
-                @SuppressWarnings("unchecked")
-                Map<String, Object> subMap = (Map<String, Object>) value;
-                convertToPlainMap(subMap,  plain, prefix + key + ".");
-            } else if (value instanceof List){
-                plain.put(prefix + key, value);
-            } else {
-                plain.put(prefix + key, value.toString());
-            }
+    /**
+     * 读取文件系统中的YAML文件，空文件返回空Map
+     */
+    public static Map<String, Object> loadYamlAsPlainMap(Path file) throws IOException {
+        Map<String, Object> plain = new LinkedHashMap<>();
+        try (InputStream input = Files.newInputStream(file)) {
+            flattenYaml(input, plain::put);
         }
+        return plain;
+    }
+
+    /**
+     * 流式解析YAML并把展开后的key和值直接写入sink，不创建中间的对象树。
+     * 标量值为String，序列为List，只读取第一个文档。
+     */
+    public static void flattenYaml(InputStream input, BiConsumer<String, Object> sink) {
+        LoaderOptions loaderOptions = new LoaderOptions();
+        // 生成的配置文件可能超过默认的3MB限制:
+        loaderOptions.setCodePointLimit(Integer.getInteger(CODE_POINT_LIMIT_PROPERTY, DEFAULT_CODE_POINT_LIMIT));
+        flattenYaml(input, sink, loaderOptions);
+    }
+
+    /**
+     * 使用指定的codePointLimit和maxAliasesForCollections解析
+     */
+    public static void flattenYaml(InputStream input, BiConsumer<String, Object> sink, LoaderOptions loaderOptions) {
+        DumperOptions dumperOptions = new DumperOptions();
+        Yaml yaml = new Yaml(new Constructor(loaderOptions), new Representer(dumperOptions), dumperOptions, loaderOptions, new NoImplicitResolver());
+        new YamlEventFlattener(sink, loaderOptions.getMaxAliasesForCollections()).flatten(yaml.parse(new UnicodeReader(input)));
     }
 
 }
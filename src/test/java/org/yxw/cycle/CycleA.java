@@ -0,0 +1,10 @@
+package org.yxw.cycle;
+
+import org.yxw.annotation.Component;
+
+@Component
+public class CycleA {
+
+    public CycleA(CycleB b) {
+    }
+}
@@ -0,0 +1,8 @@
+package org.yxw.cycle;
+
+import org.yxw.annotation.ComponentScan;
+
+@ComponentScan
+public class CycleApplication {
+
+}
@@ -0,0 +1,80 @@
+package org.yxw.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ConfigSnapshotTest {
+
+    @Test
+    public void loadSnapshot(@TempDir Path dir) throws Exception {
+        Path yaml = dir.resolve("application.yml");
+        Path props = dir.resolve("application.properties");
+        Files.write(yaml, Arrays.asList("app:", "  title: Summer", "  tags: [a, b]", "  中文: 值"), StandardCharsets.UTF_8);
+        Files.write(props, Arrays.asList("app.title=From Properties", "app.version=v1.0"));
+        Path snapshot = dir.resolve("cache/config.snapshot");
+        List<Path> sources = Arrays.asList(yaml, props);
+
+        ConfigSnapshot.MappedPropertySource source = ConfigSnapshot.load("snapshot", snapshot, sources);
+        assertTrue(Files.isRegularFile(snapshot));
+        assertEquals(4, source.size());
+        assertEquals("Summer", source.getProperty("app.title"));
+        assertEquals("v1.0", source.getProperty("app.version"));
+        assertEquals("[a, b]", source.getProperty("app.tags"));
+        assertEquals("值", source.getProperty("app.中文"));
+        assertNull(source.getProperty("app"));
+        assertNull(source.getProperty("app.title.x"));
+
+        // 源文件未变化时直接映射已有的快照:
+        FileTime modified = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(snapshot, modified);
+        source = ConfigSnapshot.load("snapshot", snapshot, sources);
+        assertEquals(modified, Files.getLastModifiedTime(snapshot));
+        assertEquals("Summer", source.getProperty("app.title"));
+
+        // 源文件变化后重新生成:
+        Files.write(yaml, Arrays.asList("app:", "  title: Changed"));
+        source = ConfigSnapshot.load("snapshot", snapshot, sources);
+        assertNotEquals(modified, Files.getLastModifiedTime(snapshot));
+        assertEquals("Changed", source.getProperty("app.title"));
+        assertEquals(ConfigSnapshot.checksum(sources), source.getChecksum());
+
+        PropertyResolver pr = new PropertyResolver(new PropertySources().addLast(source));
+        assertEquals("Changed v1.0", pr.parseValue("${app.title} ${app.version}"));
+    }
+
+    @Test
+    public void invalidSnapshot(@TempDir Path dir) throws Exception {
+        Path props = dir.resolve("application.properties");
+        Files.write(props, Arrays.asList("app.title=Summer"));
+        Path snapshot = dir.resolve("config.snapshot");
+        Files.write(snapshot, "not a snapshot".getBytes(StandardCharsets.UTF_8));
+
+        ConfigSnapshot.MappedPropertySource source = ConfigSnapshot.load("snapshot", snapshot, Arrays.asList(props));
+        assertEquals("Summer", source.getProperty("app.title"));
+
+        // 校验和正确但数据被截断:
+        byte[] data = Files.readAllBytes(snapshot);
+        Files.write(snapshot, Arrays.copyOf(data, data.length - 3));
+        assertThrows(IllegalArgumentException.class, () -> ConfigSnapshot.map("snapshot", snapshot));
+        source = ConfigSnapshot.load("snapshot", snapshot, Arrays.asList(props));
+        assertEquals("Summer", source.getProperty("app.title"));
+
+        // count溢出:
+        data = Files.readAllBytes(snapshot);
+        ByteBuffer.wrap(data).putInt(16, Integer.MAX_VALUE / 8);
+        Files.write(snapshot, data);
+        assertThrows(IllegalArgumentException.class, () -> ConfigSnapshot.map("snapshot", snapshot));
+        source = ConfigSnapshot.load("snapshot", snapshot, Arrays.asList(props));
+        assertEquals("Summer", source.getProperty("app.title"));
+    }
+}
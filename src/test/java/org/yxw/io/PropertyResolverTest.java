@@ -5,14 +5,29 @@ import static org.junit.jupiter.api.Assertions.*;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.DisabledOnOs;
 import org.junit.jupiter.api.condition.EnabledOnOs;
 import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
 
-@EnabledOnOs(OS.WINDOWS)
 public class PropertyResolverTest {
 
     @Test
@@ -97,4 +112,226 @@ public class PropertyResolverTest {
         PropertyResolver pr = new PropertyResolver(props);
         assertEquals("Windows_NT", pr.getProperty("${app.os:${OS}}"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void embeddedPlaceholder() {
+        Properties props = new Properties();
+        props.setProperty("db.host", "localhost");
+        props.setProperty("db.port", "3306");
+        props.setProperty("db.env", "dev");
+        props.setProperty("db.dev.name", "summer_dev");
+        props.setProperty("jdbc.url", "jdbc:mysql://${db.host}:${db.port}/${db.${db.env}.name}?ssl=${db.ssl:false}");
+        props.setProperty("jdbc.pool-size", "${db.pool:${db.port}}");
+
+        PropertyResolver pr = new PropertyResolver(props);
+        assertEquals("jdbc:mysql://localhost:3306/summer_dev?ssl=false", pr.getProperty("jdbc.url"));
+        assertEquals("jdbc:mysql://localhost:3306/summer_dev?ssl=false", pr.getProperty("${jdbc.url}"));
+        assertEquals("localhost:3306", pr.getProperty("${db.host}:${db.port}"));
+        assertEquals(3306, pr.getProperty("jdbc.pool-size", int.class));
+        // 没有匹配的}按字面量处理:
+        assertEquals("${db.host", pr.parseValue("${db.host"));
+        assertThrows(NullPointerException.class, () -> {
+            pr.getProperty("jdbc:${db.user}");
+        });
+        // 编译后的模板在来源变化时丢弃:
+        assertTrue(pr.cache.templates.containsKey("${db.pool:${db.port}}"));
+        pr.getPropertySources().changed("properties");
+        assertTrue(pr.cache.templates.isEmpty());
+    }
+
+    @Test
+    public void circularPlaceholder() {
+        Properties props = new Properties();
+        props.setProperty("a", "${b}");
+        props.setProperty("b", "x-${c:${a}}");
+
+        PropertyResolver pr = new PropertyResolver(props);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> {
+            pr.getProperty("a");
+        });
+        assertEquals("Circular placeholder reference: a -> b -> a", e.getMessage());
+    }
+
+    @Test
+    public void layeredPropertySources() {
+        Properties props = new Properties();
+        props.setProperty("app.title", "From Properties");
+        props.setProperty("app.version", "v1.0");
+        Map<String, Object> yaml = new HashMap<>();
+        yaml.put("app.title", "From Yaml");
+        yaml.put("app.name", "${app.title} ${app.version}");
+
+        PropertySources sources = PropertySources.standard(new String[] { "--app.version=v2.0", "--debug", "ignored" });
+        sources.addLast(PropertySource.fromMap("yaml", yaml));
+        sources.addLast(PropertySource.fromProperties("properties", props));
+        assertEquals(Arrays.asList(PropertySource.COMMAND_LINE, PropertySource.SYSTEM_PROPERTIES, PropertySource.SYSTEM_ENVIRONMENT, "yaml", "properties"),
+                sources.getNames());
+
+        PropertyResolver pr = new PropertyResolver(sources);
+        assertEquals("From Yaml v2.0", pr.getProperty("app.name"));
+        assertTrue(pr.getProperty("debug", boolean.class));
+        assertNull(pr.getProperty("ignored"));
+        assertEquals(System.getProperty("java.version"), pr.getProperty("java.version"));
+
+        // 运行时添加或删除PropertySource后重新解析:
+        sources.remove(PropertySource.COMMAND_LINE);
+        assertEquals("From Yaml v1.0", pr.getProperty("app.name"));
+        sources.remove("yaml");
+        assertNull(pr.getProperty("app.name"));
+        Map<String, Object> overrides = new HashMap<>();
+        overrides.put("app.title", "Override");
+        sources.addBefore("properties", PropertySource.fromMap("overrides", overrides));
+        assertEquals("Override", pr.getProperty("app.title"));
+        // 参数错误时不删除已有的来源:
+        List<String> names = sources.getNames();
+        assertThrows(IllegalArgumentException.class, () -> sources.addAfter("overrides", PropertySource.fromMap("overrides", overrides)));
+        assertThrows(IllegalArgumentException.class, () -> sources.addBefore("missing", PropertySource.fromMap("properties", overrides)));
+        assertEquals(names, sources.getNames());
+
+        // 不存在的key最多缓存MAX_CACHED_VALUES个:
+        for (int i = 0; i < PropertyResolver.MAX_CACHED_VALUES * 2; i++) {
+            assertNull(pr.getProperty("missing.key" + i));
+        }
+        assertEquals(PropertyResolver.MAX_CACHED_VALUES, pr.cache.values.size());
+        assertEquals("Override", pr.getProperty("app.title"));
+    }
+
+    @Test
+    public void reloadPropertySource(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("app.properties");
+        Files.write(file, Arrays.asList("app.title=Summer", "app.timeout=10", "app.removed=x"));
+        PropertySources sources = new PropertySources();
+        PropertyResolver pr = new PropertyResolver(sources);
+        BlockingQueue<PropertyChangeEvent> events = new LinkedBlockingQueue<>();
+        pr.addPropertyChangeListener(events::add);
+
+        sources.addLast(PropertySource.fromMap("app", Collections.singletonMap("app.timeout", "5")));
+        assertEquals("app", events.poll(1, TimeUnit.SECONDS).getSourceName());
+        assertEquals(5, pr.getProperty("app.timeout", int.class));
+
+        try (PropertySourceWatcher watcher = new PropertySourceWatcher(sources)) {
+            // 替换已存在的同名来源:
+            watcher.watch(new ReloadablePropertySource("app", file));
+            assertEquals("app", events.poll(1, TimeUnit.SECONDS).getSourceName());
+            assertEquals(Collections.singletonList("app"), sources.getNames());
+            assertEquals(10, pr.getProperty("app.timeout", int.class));
+            // 监听器抛出异常时监视线程继续运行:
+            pr.addPropertyChangeListener(e -> {
+                throw new IllegalStateException("listener failed");
+            });
+            watcher.start();
+
+            // 先写入临时文件再替换，避免读到写了一半的文件:
+            Path tmp = Files.createTempFile(dir, "app", ".tmp");
+            Files.write(tmp, Arrays.asList("app.title=Summer", "app.timeout=20", "app.added=y"));
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            // 不同平台的WatchService延迟不同:
+            PropertyChangeEvent event = events.poll(30, TimeUnit.SECONDS);
+            assertNotNull(event);
+            assertEquals(new HashSet<>(Arrays.asList("app.timeout", "app.removed", "app.added")), event.getChangedKeys());
+            assertEquals(20, pr.getProperty("app.timeout", int.class));
+            assertNull(pr.getProperty("app.removed"));
+            assertEquals("y", pr.getProperty("app.added"));
+
+            tmp = Files.createTempFile(dir, "app", ".tmp");
+            Files.write(tmp, Arrays.asList("app.title=Summer", "app.timeout=30", "app.added=y"));
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            event = events.poll(30, TimeUnit.SECONDS);
+            assertNotNull(event);
+            assertEquals(Collections.singleton("app.timeout"), event.getChangedKeys());
+            assertEquals(30, pr.getProperty("app.timeout", int.class));
+        }
+    }
+
+    @Test
+    public void prefixQuery() {
+        Properties props = new Properties();
+        props.setProperty("db.pool.max", "10");
+        props.setProperty("db.pool.min", "${db.pool.max}");
+        props.setProperty("db.poolx", "x");
+        props.setProperty("db.url", "jdbc:h2");
+        Map<String, Object> tenants = new HashMap<>();
+        tenants.put("tenant.a.name", "A");
+        tenants.put("tenant.b.name", "B");
+        PropertySources sources = new PropertySources().addLast(PropertySource.fromProperties("properties", props));
+        PropertyResolver pr = new PropertyResolver(sources);
+
+        assertEquals(Arrays.asList("db.pool.max", "db.pool.min"), new ArrayList<>(pr.keysWithPrefix("db.pool.")));
+        assertEquals(Arrays.asList("db.pool.max", "db.pool.min", "db.poolx"), new ArrayList<>(pr.keysWithPrefix("db.pool")));
+        assertTrue(pr.keysWithPrefix("tenant.").isEmpty());
+        Map<String, String> pool = pr.getSubProperties("db.pool");
+        assertEquals(Arrays.asList("max", "min"), new ArrayList<>(pool.keySet()));
+        assertEquals("10", pool.get("min"));
+
+        // 添加来源后重新建立索引:
+        sources.addFirst(PropertySource.fromMap("tenants", tenants));
+        assertEquals(Arrays.asList("tenant.a.name", "tenant.b.name"), new ArrayList<>(pr.keysWithPrefix("tenant.")));
+        assertEquals("B", pr.getSubProperties("tenant.b").get("name"));
+    }
+
+    @Test
+    public void convertValues() throws Exception {
+        Properties props = new Properties();
+        props.setProperty("net.port", "8080");
+        props.setProperty("net.timeout", "30000000000");
+        props.setProperty("net.ratio", "0.75");
+        props.setProperty("net.flag", "Y");
+        props.setProperty("net.mode", "read-write");
+        props.setProperty("net.ports", "80, 443,8443");
+        props.setProperty("net.hosts", "[a.com, b.com, a.com]");
+        props.setProperty("net.buffer", "512MB");
+        props.setProperty("net.empty", "[]");
+        Map<String, Object> yaml = new HashMap<>();
+        yaml.put("net.codes", Arrays.asList(1, 2, 3));
+        PropertySources sources = new PropertySources().addLast(PropertySource.fromProperties("properties", props))
+                .addLast(PropertySource.fromMap("yaml", yaml));
+        PropertyResolver pr = new PropertyResolver(sources);
+
+        assertEquals(8080, pr.getInt("net.port", 0));
+        assertEquals(7, pr.getInt("net.missing", 7));
+        assertEquals(30000000000L, pr.getLong("net.timeout", 0));
+        assertEquals(0.75, pr.getDouble("net.ratio", 0), 0.0);
+        assertFalse(pr.getBoolean("net.missing", false));
+        assertEquals(Long.valueOf(30000000000L), pr.getProperty("net.timeout", Long.class));
+        assertEquals((short) 8080, pr.getProperty("net.port", short.class));
+        assertEquals(0.75f, pr.getProperty("net.ratio", float.class));
+        assertEquals('Y', pr.getProperty("net.flag", char.class));
+        assertEquals(Mode.READ_WRITE, pr.getProperty("net.mode", Mode.class));
+        assertEquals(DataSize.ofMegabytes(512), pr.getProperty("net.buffer", DataSize.class));
+        assertEquals(512L * 1024 * 1024, DataSize.parse("512 mb").toBytes());
+        assertThrows(IllegalArgumentException.class, () -> DataSize.parse("512XB"));
+
+        assertArrayEquals(new int[] { 80, 443, 8443 }, pr.getProperty("net.ports", int[].class));
+        assertArrayEquals(new String[] { "a.com", "b.com", "a.com" }, pr.getProperty("net.hosts", String[].class));
+        assertEquals(0, pr.getProperty("net.empty", long[].class).length);
+        assertEquals(Arrays.asList(80, 443, 8443), pr.getList("net.ports", Integer.class));
+        assertEquals(Arrays.asList(1L, 2L, 3L), pr.getList("net.codes", Long.class));
+        assertEquals(new ArrayList<>(Arrays.asList("a.com", "b.com")), new ArrayList<>(pr.getProperty("net.hosts", Set.class)));
+        Type listOfInt = Holder.class.getDeclaredField("ports").getGenericType();
+        assertEquals(Arrays.asList(80, 443, 8443), pr.convert("80,443,8443", listOfInt));
+
+        assertTrue(pr.canConvert(Mode.class));
+        assertTrue(pr.canConvert(int[].class));
+        assertFalse(pr.canConvert(Holder.class));
+
+        // 不可变类型的转换结果被缓存，数组每次新建:
+        assertSame(pr.getProperty("net.buffer", DataSize.class), pr.getProperty("net.buffer", DataSize.class));
+        assertNotSame(pr.getProperty("net.ports", int[].class), pr.getProperty("net.ports", int[].class));
+        pr.registerConverter(DataSize.class, s -> DataSize.ofBytes(1));
+        assertEquals(DataSize.ofBytes(1), pr.getProperty("net.buffer", DataSize.class));
+        // 注册的转换器默认不缓存，结果可能是可变对象:
+        pr.registerConverter(StringBuilder.class, StringBuilder::new);
+        assertNotSame(pr.getProperty("net.flag", StringBuilder.class), pr.getProperty("net.flag", StringBuilder.class));
+        pr.registerConverter(StringBuilder.class, StringBuilder::new, true);
+        assertSame(pr.getProperty("net.flag", StringBuilder.class), pr.getProperty("net.flag", StringBuilder.class));
+        assertSame(pr.getProperty("net.mode", Mode.class), pr.getProperty("net.mode", Mode.class));
+    }
+
+    enum Mode {
+        READ_ONLY, READ_WRITE
+    }
+
+    static class Holder {
+        List<Integer> ports;
+    }
+}
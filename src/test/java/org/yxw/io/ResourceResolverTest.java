@@ -2,7 +2,25 @@ package org.yxw.io;
 
 import org.junit.jupiter.api.Test;
 
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 
 public class ResourceResolverTest {
@@ -30,4 +48,83 @@ public class ResourceResolverTest {
         }
         System.out.println("\n共找到 " + classFiles.size() + " 个类文件");
     }
+
+    @Test
+    public void testParallelScanSameAsSerial() {
+        List<String> serial = new ResourceResolver("org.yxw").scan(ResourceResolverTest::toClassName);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<String> parallel = new ResourceResolver("org.yxw", pool).scan(ResourceResolverTest::toClassName);
+            assertEquals(serial.size(), parallel.size());
+            assertEquals(new HashSet<>(serial), new HashSet<>(parallel));
+            assertTrue(parallel.contains("org.yxw.scan.sub1.sub2.sub3.Sub3Bean"));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testParallelScanSkipsDirectoryLinks(@TempDir Path tempDir) throws Exception {
+        Path dir = Files.createDirectories(tempDir.resolve("org/yxw/linktest/sub"));
+        Files.write(dir.resolve("A.class"), new byte[] { 1, 2, 3 });
+        try {
+            // 指向上级目录的链接形成环:
+            Files.createSymbolicLink(dir.resolve("loop"), dir.getParent());
+        } catch (UnsupportedOperationException | IOException e) {
+            return;
+        }
+        ClassLoader original = Thread.currentThread().getContextClassLoader();
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try (URLClassLoader cl = new URLClassLoader(new URL[] { tempDir.toUri().toURL() }, null)) {
+            Thread.currentThread().setContextClassLoader(cl);
+            List<String> serial = new ResourceResolver("org.yxw.linktest").scan(ResourceResolverTest::toClassName);
+            List<String> parallel = new ResourceResolver("org.yxw.linktest", pool).scan(ResourceResolverTest::toClassName);
+            assertEquals(Arrays.asList("org.yxw.linktest.sub.A"), serial);
+            assertEquals(serial, parallel);
+        } finally {
+            Thread.currentThread().setContextClassLoader(original);
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testScanJarWithSharedSession(@TempDir Path tempDir) throws Exception {
+        Path jar = tempDir.resolve("test.jar");
+        try (JarOutputStream output = new JarOutputStream(new FileOutputStream(jar.toFile()))) {
+            for (String name : Arrays.asList("org/", "org/yxw/", "org/yxw/jartest/", "org/yxw/jartest/sub/", "org/yxw/jartest2/", "org/yxw/other/", "org/yxw/jartest/A.class", "org/yxw/jartest/sub/B.class", "org/yxw/jartest2/C.class", "org/yxw/other/D.class")) {
+                output.putNextEntry(new ZipEntry(name));
+                output.write(new byte[] { 1, 2, 3 });
+                output.closeEntry();
+            }
+        }
+        ClassLoader original = Thread.currentThread().getContextClassLoader();
+        try (URLClassLoader cl = new URLClassLoader(new URL[] { jar.toUri().toURL() }, null)) {
+            URI jarUri = JarFileCache.toJarUri(cl.getResource("org/yxw/jartest").toURI());
+            Thread.currentThread().setContextClassLoader(cl);
+            for (boolean zipFileMode : new boolean[] { false, true }) {
+                JarFileCache.Session session = JarFileCache.getInstance().openSession(zipFileMode);
+                // 同一个jar扫描多次，不会重复打开:
+                List<String> classes = new ResourceResolver("org.yxw.jartest", null, session).scan(ResourceResolverTest::toClassName);
+                assertEquals(new HashSet<>(Arrays.asList("org.yxw.jartest.A", "org.yxw.jartest.sub.B")), new HashSet<>(classes));
+                assertEquals(Arrays.asList("org.yxw.other.D"), new ResourceResolver("org.yxw.other", null, session).scan(ResourceResolverTest::toClassName));
+                assertTrue(JarFileCache.getInstance().isCached(jarUri));
+                session.close();
+                assertFalse(JarFileCache.getInstance().isCached(jarUri));
+            }
+            // 不指定session时，scan()结束后自动释放:
+            assertEquals(Arrays.asList("org.yxw.jartest2.C"), new ResourceResolver("org.yxw.jartest2").scan(ResourceResolverTest::toClassName));
+            assertEquals(Arrays.asList("org.yxw.jartest2.C"), new ResourceResolver("org.yxw.jartest2").scan(ResourceResolverTest::toClassName));
+            assertFalse(JarFileCache.getInstance().isCached(jarUri));
+        } finally {
+            Thread.currentThread().setContextClassLoader(original);
+        }
+    }
+
+    static String toClassName(Resource resource) {
+        String name = resource.getName();
+        if (name.endsWith(".class")) {
+            return name.substring(0, name.length() - 6).replace("/", ".").replace("\\", ".");
+        }
+        return null;
+    }
 }
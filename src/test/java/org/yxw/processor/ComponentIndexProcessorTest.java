@@ -0,0 +1,69 @@
+package org.yxw.processor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.yxw.context.ComponentIndex;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+public class ComponentIndexProcessorTest {
+
+    @Test
+    public void incrementalCompile(@TempDir Path dir) throws Exception {
+        Path src = Files.createDirectories(dir.resolve("src/demo"));
+        Path classes = Files.createDirectories(dir.resolve("classes"));
+        Path a = write(src, "A", "@org.yxw.annotation.Component public class A { }");
+        Path b = write(src, "B", "@org.yxw.annotation.Component public class B { @org.yxw.annotation.Component public static class Nested { } }");
+        Path c = write(src, "C", "@org.yxw.annotation.Component public class C { }");
+        compile(classes, a, b, c);
+        assertEquals(Arrays.asList("demo.A", "demo.B", "demo.B$Nested", "demo.C"), readIndex(classes));
+
+        // 只重新编译A，其他组件保留:
+        compile(classes, a);
+        assertEquals(Arrays.asList("demo.A", "demo.B", "demo.B$Nested", "demo.C"), readIndex(classes));
+
+        // 重新编译的类删除了@Component，删除的类不能再解析:
+        write(src, "A", "public class A { }");
+        Files.delete(c);
+        Files.delete(classes.resolve("demo/C.class"));
+        compile(classes, a);
+        assertEquals(Arrays.asList("demo.B", "demo.B$Nested"), readIndex(classes));
+    }
+
+    Path write(Path dir, String name, String code) throws Exception {
+        Path file = dir.resolve(name + ".java");
+        Files.write(file, ("package demo;\n\n" + code + "\n").getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    void compile(Path classes, Path... sources) throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            List<File> files = new ArrayList<>();
+            for (Path source : sources) {
+                files.add(source.toFile());
+            }
+            // 输出目录也在classpath中，与增量编译相同:
+            String classpath = System.getProperty("java.class.path") + File.pathSeparator + classes;
+            List<String> options = Arrays.asList("-d", classes.toString(), "-classpath", classpath, "-processor", ComponentIndexProcessor.class.getName());
+            assertTrue(compiler.getTask(null, fileManager, null, options, null, fileManager.getJavaFileObjectsFromFiles(files)).call());
+        }
+    }
+
+    List<String> readIndex(Path classes) throws Exception {
+        return Files.readAllLines(classes.resolve(ComponentIndex.INDEX_LOCATION)).stream().filter(line -> !line.startsWith("#")).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,28 @@
+package org.yxw.scan.autowired;
+
+import org.yxw.annotation.Autowired;
+import org.yxw.annotation.Component;
+import org.yxw.annotation.Value;
+
+import java.util.List;
+
+@Component
+public class FieldInjectBean {
+
+    @Autowired
+    SetterInjectBean setterInjectBean;
+
+    @Value("${app.title}")
+    private String appTitle;
+
+    @Value("${autowired.ports:80,443}")
+    public List<Integer> ports;
+
+    public SetterInjectBean getSetterInjectBean() {
+        return setterInjectBean;
+    }
+
+    public String getAppTitle() {
+        return appTitle;
+    }
+}
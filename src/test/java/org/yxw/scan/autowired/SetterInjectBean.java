@@ -0,0 +1,33 @@
+package org.yxw.scan.autowired;
+
+import org.yxw.annotation.Autowired;
+import org.yxw.annotation.Component;
+import org.yxw.annotation.Value;
+
+@Component
+public class SetterInjectBean {
+
+    // 与FieldInjectBean互相引用:
+    @Autowired(name = "fieldInjectBean")
+    public FieldInjectBean fieldInjectBean;
+
+    @Autowired(false)
+    public MissingService missingService;
+
+    public int maxSize;
+
+    public String version;
+
+    @Value("${jdbc.pool.max-size}")
+    void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    @Autowired
+    void setup(FieldInjectBean bean, @Value("${app.version}") String version) {
+        this.version = version + "@" + bean.getAppTitle();
+    }
+
+    public interface MissingService {
+    }
+}
@@ -0,0 +1,19 @@
+package org.yxw.scan.dependency;
+
+import org.yxw.annotation.Component;
+import org.yxw.scan.primary.DogBean;
+import org.yxw.scan.primary.PersonBean;
+
+@Component
+public class ControllerBean {
+
+    public final ServiceBean service;
+    public final PersonBean person;
+    public final DogBean dog;
+
+    public ControllerBean(ServiceBean service, PersonBean person, DogBean dog) {
+        this.service = service;
+        this.person = person;
+        this.dog = dog;
+    }
+}
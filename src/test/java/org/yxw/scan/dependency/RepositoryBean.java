@@ -0,0 +1,9 @@
+package org.yxw.scan.dependency;
+
+import org.yxw.annotation.Component;
+
+@Component
+public class RepositoryBean {
+
+    public final String threadName = Thread.currentThread().getName();
+}
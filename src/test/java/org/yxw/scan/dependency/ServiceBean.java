@@ -0,0 +1,16 @@
+package org.yxw.scan.dependency;
+
+import org.yxw.annotation.Component;
+import org.yxw.annotation.Value;
+
+@Component
+public class ServiceBean {
+
+    public final RepositoryBean repository;
+    public final String appTitle;
+
+    public ServiceBean(RepositoryBean repository, @Value("${app.title}") String appTitle) {
+        this.repository = repository;
+        this.appTitle = appTitle;
+    }
+}
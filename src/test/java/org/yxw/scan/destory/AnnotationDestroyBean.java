@@ -3,7 +3,7 @@ package org.yxw.scan.destory;
 import org.yxw.annotation.Component;
 import org.yxw.annotation.Value;
 
-import javax.annotation.PreDestroy;
+import jakarta.annotation.PreDestroy;
 
 @Component
 public class AnnotationDestroyBean {
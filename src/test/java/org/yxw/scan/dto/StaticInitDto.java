@@ -0,0 +1,15 @@
+package org.yxw.scan.dto;
+
+/**
+ * 非组件类，被加载时会设置系统属性，用于验证扫描时不会加载它
+ */
+public class StaticInitDto {
+
+    public static final String LOADED_PROPERTY = "summer.test.static-init-dto.loaded";
+
+    static {
+        System.setProperty(LOADED_PROPERTY, "true");
+    }
+
+    public String name;
+}
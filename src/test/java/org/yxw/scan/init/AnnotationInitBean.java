@@ -3,7 +3,7 @@ package org.yxw.scan.init;
 import org.yxw.annotation.Component;
 import org.yxw.annotation.Value;
 
-import javax.annotation.PostConstruct;
+import jakarta.annotation.PostConstruct;
 
 @Component
 public class AnnotationInitBean {
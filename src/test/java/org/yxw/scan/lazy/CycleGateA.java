@@ -0,0 +1,19 @@
+package org.yxw.scan.lazy;
+
+import org.yxw.annotation.Component;
+import org.yxw.annotation.Lazy;
+
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+@Lazy
+@Component
+public class CycleGateA {
+
+    // 两个线程都开始创建CycleLazyA和CycleLazyB之后才继续:
+    public static final CyclicBarrier BARRIER = new CyclicBarrier(2);
+
+    public CycleGateA() throws Exception {
+        BARRIER.await(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,15 @@
+package org.yxw.scan.lazy;
+
+import org.yxw.annotation.Component;
+import org.yxw.annotation.Lazy;
+
+import java.util.concurrent.TimeUnit;
+
+@Lazy
+@Component
+public class CycleGateB {
+
+    public CycleGateB() throws Exception {
+        CycleGateA.BARRIER.await(10, TimeUnit.SECONDS);
+    }
+}
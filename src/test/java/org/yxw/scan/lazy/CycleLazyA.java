@@ -0,0 +1,17 @@
+package org.yxw.scan.lazy;
+
+import org.yxw.annotation.Autowired;
+import org.yxw.annotation.Component;
+import org.yxw.annotation.Lazy;
+
+@Lazy
+@Component
+public class CycleLazyA {
+
+    // 构造方法不形成环，注入字段时才获取对方:
+    @Autowired
+    CycleLazyB b;
+
+    public CycleLazyA(CycleGateA gate) {
+    }
+}
@@ -0,0 +1,13 @@
+package org.yxw.scan.lazy;
+
+import org.yxw.annotation.Component;
+
+@Component
+public class EagerBean {
+
+    public final LazyDependencyBean dependency;
+
+    public EagerBean(LazyDependencyBean dependency) {
+        this.dependency = dependency;
+    }
+}
@@ -0,0 +1,23 @@
+package org.yxw.scan.lazy;
+
+import org.yxw.annotation.Component;
+import org.yxw.annotation.Lazy;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Lazy
+@Component
+public class FailingLazyBean {
+
+    public static final AtomicInteger ATTEMPTS = new AtomicInteger();
+    // 为true时下一次创建失败:
+    public static final AtomicBoolean FAIL_NEXT = new AtomicBoolean();
+
+    public FailingLazyBean() {
+        ATTEMPTS.incrementAndGet();
+        if (FAIL_NEXT.getAndSet(false)) {
+            throw new IllegalStateException("Creation failed.");
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package org.yxw.scan.lazy;
+
+import org.yxw.annotation.Autowired;
+import org.yxw.annotation.Component;
+import org.yxw.annotation.Lazy;
+
+@Lazy
+@Component
+public class FieldCycleB {
+
+    @Autowired
+    public FieldCycleA a;
+}
@@ -0,0 +1,27 @@
+package org.yxw.scan.lazy;
+
+import jakarta.annotation.PostConstruct;
+import org.yxw.annotation.Component;
+import org.yxw.annotation.Lazy;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Lazy
+@Component
+public class LazyBean {
+
+    public static final AtomicInteger CREATED = new AtomicInteger();
+
+    public boolean initialized = false;
+
+    public LazyBean() throws InterruptedException {
+        CREATED.incrementAndGet();
+        // 放大并发获取时的竞争窗口:
+        Thread.sleep(50);
+    }
+
+    @PostConstruct
+    void init() {
+        this.initialized = true;
+    }
+}
@@ -0,0 +1,10 @@
+package org.yxw.scan.lazy;
+
+import org.yxw.annotation.Component;
+import org.yxw.annotation.Lazy;
+
+@Lazy
+@Component
+public class LazyDependencyBean {
+
+}
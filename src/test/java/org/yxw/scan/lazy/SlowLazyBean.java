@@ -0,0 +1,31 @@
+package org.yxw.scan.lazy;
+
+import org.yxw.annotation.Component;
+import org.yxw.annotation.Lazy;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+@Lazy
+@Component
+public class SlowLazyBean {
+
+    // 每个测试开始前调用reset()重新创建:
+    public static volatile CountDownLatch STARTED;
+    public static volatile CountDownLatch RELEASE;
+
+    static {
+        reset();
+    }
+
+    public static void reset() {
+        STARTED = new CountDownLatch(1);
+        RELEASE = new CountDownLatch(1);
+    }
+
+    public SlowLazyBean() throws InterruptedException {
+        STARTED.countDown();
+        // 直到测试允许时才创建完成:
+        RELEASE.await(10, TimeUnit.SECONDS);
+    }
+}
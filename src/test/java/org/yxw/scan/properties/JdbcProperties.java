@@ -0,0 +1,35 @@
+package org.yxw.scan.properties;
+
+import org.yxw.annotation.Component;
+import org.yxw.annotation.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "jdbc")
+public class JdbcProperties {
+
+    public String url;
+    String username;
+    public String password;
+    public int maxPoolSize = 10;
+    public boolean autoCommit = true;
+    Pool pool;
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = "user:" + username;
+    }
+
+    public Pool getPool() {
+        return pool;
+    }
+
+    public static class Pool {
+        public int maxSize;
+        public Duration idleTimeout;
+    }
+}
@@ -0,0 +1,17 @@
+package org.yxw.scan.scope;
+
+import jakarta.annotation.PreDestroy;
+import org.yxw.annotation.Component;
+import org.yxw.annotation.Scope;
+
+@Scope("conversation")
+@Component
+public class ConversationBean {
+
+    public boolean destroyed = false;
+
+    @PreDestroy
+    void destroy() {
+        this.destroyed = true;
+    }
+}
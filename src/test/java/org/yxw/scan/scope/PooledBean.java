@@ -0,0 +1,23 @@
+package org.yxw.scan.scope;
+
+import jakarta.annotation.PreDestroy;
+import org.yxw.annotation.Component;
+import org.yxw.annotation.Scope;
+
+@Scope(value = Scope.PROTOTYPE, poolSize = 2, resetMethod = "reset")
+@Component
+public class PooledBean {
+
+    public int uses = 0;
+
+    public boolean destroyed = false;
+
+    void reset() {
+        this.uses = 0;
+    }
+
+    @PreDestroy
+    void destroy() {
+        this.destroyed = true;
+    }
+}
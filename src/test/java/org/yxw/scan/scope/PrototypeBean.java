@@ -0,0 +1,22 @@
+package org.yxw.scan.scope;
+
+import jakarta.annotation.PostConstruct;
+import org.yxw.annotation.Autowired;
+import org.yxw.annotation.Component;
+import org.yxw.annotation.Scope;
+import org.yxw.scan.dependency.ServiceBean;
+
+@Scope(Scope.PROTOTYPE)
+@Component
+public class PrototypeBean {
+
+    @Autowired
+    public ServiceBean service;
+
+    public boolean initialized = false;
+
+    @PostConstruct
+    void init() {
+        this.initialized = true;
+    }
+}
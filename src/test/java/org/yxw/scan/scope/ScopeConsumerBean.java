@@ -0,0 +1,13 @@
+package org.yxw.scan.scope;
+
+import org.yxw.annotation.Component;
+
+@Component
+public class ScopeConsumerBean {
+
+    public final PrototypeBean prototype;
+
+    public ScopeConsumerBean(PrototypeBean prototype) {
+        this.prototype = prototype;
+    }
+}
@@ -0,0 +1,17 @@
+package org.yxw.scan.scope;
+
+import jakarta.annotation.PreDestroy;
+import org.yxw.annotation.Component;
+import org.yxw.annotation.Scope;
+
+@Scope(Scope.THREAD)
+@Component
+public class ThreadBean {
+
+    public int destroyed = 0;
+
+    @PreDestroy
+    void destroy() {
+        this.destroyed++;
+    }
+}
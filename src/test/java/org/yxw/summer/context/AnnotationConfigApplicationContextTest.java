@@ -1,22 +1,88 @@
 package org.yxw.summer.context;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.yxw.annotation.Scope;
 import org.yxw.context.AnnotationConfigApplicationContext;
 import org.yxw.context.BeanDefinition;
+import org.yxw.context.BeanScope;
+import org.yxw.context.ComponentCandidateFilter;
+import org.yxw.context.ComponentIndex;
+import org.yxw.context.DefinitionSnapshot;
+import org.yxw.context.GeneratedFactory;
+import org.yxw.context.StartupRecorder;
+import org.yxw.context.StartupStep;
+import org.yxw.cycle.CycleApplication;
+import org.yxw.exception.BeanCreationException;
+import org.yxw.exception.BeanNotOfRequiredTypeException;
+import org.yxw.exception.NoUniqueBeanDefinitionException;
+import org.yxw.exception.UnsatisfiedDependencyException;
 import org.yxw.imported.LocalDateConfiguration;
 import org.yxw.imported.ZonedDateConfiguration;
 import org.yxw.io.PropertyResolver;
 import org.yxw.scan.ScanApplication;
+import org.yxw.scan.properties.JdbcProperties;
+import org.yxw.scan.autowired.FieldInjectBean;
+import org.yxw.scan.autowired.SetterInjectBean;
+import org.yxw.scan.convert.ValueConverterBean;
 import org.yxw.scan.custom.annotation.CustomAnnotationBean;
+import org.yxw.scan.dependency.ControllerBean;
+import org.yxw.scan.dependency.RepositoryBean;
+import org.yxw.scan.dependency.ServiceBean;
+import org.yxw.scan.destory.SpecifyDestroyBean;
+import org.yxw.scan.dto.StaticInitDto;
+import org.yxw.scan.init.AnnotationInitBean;
+import org.yxw.scan.init.SpecifyInitBean;
+import org.yxw.scan.init.SpecifyInitConfiguration;
+import org.yxw.scan.lazy.CycleGateA;
+import org.yxw.scan.lazy.CycleLazyA;
+import org.yxw.scan.lazy.CycleLazyB;
+import org.yxw.scan.lazy.FailingLazyBean;
+import org.yxw.scan.lazy.FieldCycleA;
+import org.yxw.scan.lazy.FieldCycleB;
+import org.yxw.scan.lazy.LazyBean;
+import org.yxw.scan.lazy.SlowLazyBean;
 import org.yxw.scan.nested.OuterBean;
 import org.yxw.scan.primary.PersonBean;
 import org.yxw.scan.primary.StudentBean;
 import org.yxw.scan.primary.TeacherBean;
+import org.yxw.scan.scope.ConversationBean;
+import org.yxw.scan.scope.PooledBean;
+import org.yxw.scan.scope.PrototypeBean;
+import org.yxw.scan.scope.ScopeConsumerBean;
+import org.yxw.scan.scope.ThreadBean;
 
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.time.temporal.Temporal;
+import java.time.Duration;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertNull;
 import static junit.framework.Assert.assertSame;
 
 public class AnnotationConfigApplicationContextTest {
@@ -49,13 +115,541 @@ public class AnnotationConfigApplicationContextTest {
         assertSame(teacherDef, personPrimaryDef);
     }
 
+    @Test
+    public void testFindBeanDefinitionsByType() {
+        AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext(ScanApplication.class, createPropertyResolver());
+        // 按接口查找: LocalDate, LocalDateTime, ZonedDateTime都实现了Temporal
+        List<String> temporals = ctx.findBeanDefinitions(Temporal.class).stream().map(BeanDefinition::getName).collect(Collectors.toList());
+        assertEquals(Arrays.asList("startLocalDate", "startLocalDateTime", "startZonedDateTime"), temporals);
+        assertTrue(ctx.findBeanDefinitions(Runnable.class).isEmpty());
+        assertNull(ctx.findBeanDefinition(Runnable.class));
+        // 所有Bean都可以按Object查找，且按@Order和名称排序:
+        List<BeanDefinition> all = ctx.findBeanDefinitions(Object.class);
+        List<BeanDefinition> sorted = new ArrayList<>(all);
+        Collections.sort(sorted);
+        assertEquals(sorted, all);
+        assertThrows(NoUniqueBeanDefinitionException.class, () -> {
+            ctx.findBeanDefinition(Object.class);
+        });
+        assertThrows(UnsupportedOperationException.class, () -> {
+            ctx.findBeanDefinitions(PersonBean.class).clear();
+        });
+    }
+
+    @Test
+    public void testResolutionCache() {
+        AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext(ScanApplication.class, createPropertyResolver());
+        // 缓存的结果与第一次查找相同，包括null和异常:
+        for (int i = 0; i < 3; i++) {
+            assertSame(ctx.findBeanDefinition("teacherBean"), ctx.findBeanDefinition(PersonBean.class));
+            assertSame(ctx.findBeanDefinition("teacherBean"), ctx.findBeanDefinition("teacherBean", PersonBean.class));
+            assertNull(ctx.findBeanDefinition(Runnable.class));
+            assertNull(ctx.findBeanDefinition("notExist", PersonBean.class));
+            assertThrows(NoUniqueBeanDefinitionException.class, () -> {
+                ctx.findBeanDefinition(Object.class);
+            });
+            assertThrows(BeanNotOfRequiredTypeException.class, () -> {
+                ctx.findBeanDefinition("teacherBean", Runnable.class);
+            });
+        }
+    }
+
+    @Test
+    public void testConfigurationProperties() {
+        AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext(ScanApplication.class, createPropertyResolver());
+        JdbcProperties props = ctx.getBean(JdbcProperties.class);
+        assertEquals("jdbc:hsqldb:file:testdb.tmp", props.url);
+        // 优先使用setter:
+        assertEquals("user:sa", props.getUsername());
+        assertEquals("", props.password);
+        assertEquals(20, props.maxPoolSize);
+        // 没有配置的属性保留默认值:
+        assertTrue(props.autoCommit);
+        assertEquals(5, props.getPool().maxSize);
+        assertEquals(Duration.ofMinutes(1), props.getPool().idleTimeout);
+    }
+
+    @Test
+    public void testInjection() {
+        try (AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext(ScanApplication.class, createPropertyResolver())) {
+            FieldInjectBean fieldBean = ctx.getBean(FieldInjectBean.class);
+            SetterInjectBean setterBean = ctx.getBean(SetterInjectBean.class);
+            // 字段可以循环引用:
+            assertSame(setterBean, fieldBean.getSetterInjectBean());
+            assertSame(fieldBean, setterBean.fieldInjectBean);
+            assertNull(setterBean.missingService);
+            assertEquals("Scan App", fieldBean.getAppTitle());
+            assertEquals(Arrays.asList(80, 443), fieldBean.ports);
+            assertEquals(5, setterBean.maxSize);
+            assertEquals("v1.0@Scan App", setterBean.version);
+            assertEquals("Scan App / v1.0", ctx.getBean(AnnotationInitBean.class).appName);
+
+            ValueConverterBean converted = ctx.getBean(ValueConverterBean.class);
+            assertTrue(converted.injectedBooleanPrimitive);
+            assertEquals((byte) 123, converted.injectedBytePrimitive);
+            assertEquals(Short.valueOf((short) 12345), converted.injectedShort);
+            assertEquals(123456789000L, converted.injectedLongPrimitive);
+            assertEquals(Double.valueOf(123456789.87654321), converted.injectedDouble);
+            assertEquals(Duration.parse("P2DT3H4M"), converted.injectedDuration);
+        }
+    }
+
+    @Test
+    public void testStartupRecorder() {
+        StartupRecorder recorder = StartupRecorder.recording(true);
+        Properties ps = createProperties();
+        ps.put(AnnotationConfigApplicationContext.CREATE_PARALLELISM_PROPERTY, "4");
+        try (AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext(ScanApplication.class, new PropertyResolver(ps), recorder)) {
+            assertSame(recorder, ctx.getStartupRecorder());
+            // 启动完成后创建的实例不再记录:
+            int recorded = recorder.getSteps().size();
+            for (int i = 0; i < 10; i++) {
+                ctx.getBean(PrototypeBean.class);
+            }
+            assertEquals(recorded, recorder.getSteps().size());
+        }
+        List<StartupStep> steps = recorder.getSteps();
+        List<String> phases = steps.stream().filter(step -> step.getName().startsWith("context.") && !step.getName().equals("context.bean")
+                && !step.getName().equals("context.definition")).map(StartupStep::getName).collect(Collectors.toList());
+        assertEquals(Arrays.asList("context.startup", "context.scan", "context.definitions", "context.create", "context.inject", "context.init"), phases);
+        StartupStep startup = steps.get(0);
+        assertEquals(-1, startup.getParentId());
+        assertEquals(ScanApplication.class.getName(), startup.getTags().get("configClass"));
+        assertEquals(startup.getId(), steps.get(1).getParentId());
+        assertTrue(startup.getDurationNanos() >= steps.get(1).getDurationNanos());
+        assertTrue(steps.stream().anyMatch(step -> step.getName().equals("context.bean") && "controllerBean".equals(step.getTags().get("name"))));
+        assertTrue(steps.stream().anyMatch(step -> step.getName().equals("context.definition") && ControllerBean.class.getName().equals(step.getTags().get("class"))));
+        assertTrue(recorder.getTotalNanos("context.bean") > 0);
+        // 工作线程中创建的Bean也以context.create为父阶段:
+        int createId = steps.stream().filter(step -> step.getName().equals("context.create")).findFirst().get().getId();
+        Set<Integer> beanParents = steps.stream().filter(step -> step.getName().equals("context.bean") && step.getTags().get("name").equals("controllerBean"))
+                .map(StartupStep::getParentId).collect(Collectors.toSet());
+        assertEquals(Collections.singleton(createId), beanParents);
+        String json = recorder.toJson();
+        assertTrue(json.startsWith("[\n  {\"id\":0,\"parentId\":-1,\"name\":\"context.startup\",\"tags\":{\"configClass\":\"org.yxw.scan.ScanApplication\"}"));
+
+        // 默认不记录:
+        try (AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext(ScanApplication.class, createPropertyResolver())) {
+            assertFalse(ctx.getStartupRecorder().isEnabled());
+            assertTrue(ctx.getStartupRecorder().getSteps().isEmpty());
+            assertEquals("[]", ctx.getStartupRecorder().toJson());
+        }
+    }
+
+    @Test
+    public void testDefinitionSnapshot(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("definitions.bin");
+        Properties ps = createProperties();
+        ps.put(AnnotationConfigApplicationContext.AOT_SNAPSHOT_PROPERTY, file.toString());
+        List<String> scanned;
+        try (AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext(ScanApplication.class, new PropertyResolver(ps))) {
+            scanned = describeDefinitions(ctx);
+        }
+        assertTrue(Files.isRegularFile(file));
+
+        // 第二次启动直接读取快照，不再扫描:
+        StartupRecorder recorder = StartupRecorder.recording(false);
+        try (AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext(ScanApplication.class, new PropertyResolver(ps), recorder)) {
+            assertEquals(scanned, describeDefinitions(ctx));
+            assertSame(ctx.getBean(TeacherBean.class), ctx.getBean(ControllerBean.class).person);
+            assertEquals("Scan App / v1.0", ctx.getBean(SpecifyInitBean.class).appName);
+            assertEquals(5, ctx.getBean(JdbcProperties.class).getPool().maxSize);
+        }
+        List<String> names = recorder.getSteps().stream().map(StartupStep::getName).collect(Collectors.toList());
+        assertTrue(names.contains("context.snapshot"));
+        assertFalse(names.contains("context.scan"));
+
+        // 指纹不一致时重新扫描并覆盖快照:
+        DefinitionSnapshot.write(file, 0, Collections.emptyList());
+        recorder = StartupRecorder.recording(false);
+        try (AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext(ScanApplication.class, new PropertyResolver(ps), recorder)) {
+            assertEquals(scanned, describeDefinitions(ctx));
+        }
+        assertTrue(recorder.getSteps().stream().anyMatch(step -> step.getName().equals("context.scan")));
+        assertTrue(Files.size(file) > 100);
+    }
+
+    @Test
+    public void testGeneratedFactory() throws Exception {
+        // 测试类编译时由BeanFactoryProcessor生成:
+        assertNotNull(Class.forName(ServiceBean.class.getName() + GeneratedFactory.SUFFIX));
+        try (AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext(ScanApplication.class, createPropertyResolver())) {
+            assertGenerated(ctx.findBeanDefinition("serviceBean").getCreateInvoker(), ServiceBean.class);
+            BeanDefinition specifyInit = ctx.findBeanDefinition("createSpecifyInitBean");
+            assertGenerated(specifyInit.getCreateInvoker(), SpecifyInitConfiguration.class);
+            assertGenerated(specifyInit.getInitInvoker(SpecifyInitBean.class), SpecifyInitConfiguration.class);
+            assertGenerated(ctx.findBeanDefinition("annotationInitBean").getInitInvoker(AnnotationInitBean.class), AnnotationInitBean.class);
+
+            assertEquals("Scan App", ctx.getBean(ServiceBean.class).appTitle);
+            assertEquals("Scan App / v1.0", ctx.getBean(SpecifyInitBean.class).appName);
+            assertEquals("Scan App / v1.0", ctx.getBean(AnnotationInitBean.class).appName);
+        }
+    }
+
+    void assertGenerated(Object invoker, Class<?> beanClass) {
+        assertTrue(invoker.getClass().getName(), invoker.getClass().getName().startsWith(beanClass.getName() + GeneratedFactory.SUFFIX + "$"));
+    }
+
+    List<String> describeDefinitions(AnnotationConfigApplicationContext ctx) {
+        return ctx.findBeanDefinitions(Object.class).stream()
+                .map(def -> def.getName() + ":" + def.getBeanClass().getName() + ":" + def.getConstructor() + ":" + def.getFactoryMethod() + ":"
+                        + def.getOrder() + ":" + def.isPrimary() + ":" + def.isLazy() + ":" + def.getInitMethod() + ":" + def.getInitMethodName() + ":"
+                        + def.getDestroyMethod() + ":" + def.getDestroyMethodName() + ":" + def.getConfigurationProperties() + ":" + def.getScope())
+                .sorted().collect(Collectors.toList());
+    }
+
+    @Test
+    public void testCreateBeans() {
+        for (String parallelism : new String[] { "1", "4" }) {
+            Properties ps = createProperties();
+            ps.put(AnnotationConfigApplicationContext.CREATE_PARALLELISM_PROPERTY, parallelism);
+            try (AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext(ScanApplication.class, new PropertyResolver(ps))) {
+                ControllerBean controller = ctx.getBean(ControllerBean.class);
+                assertSame(ctx.getBean(ServiceBean.class), controller.service);
+                assertSame(ctx.getBean(RepositoryBean.class), controller.service.repository);
+                assertEquals("Scan App", controller.service.appTitle);
+                // @Primary:
+                assertSame(ctx.getBean(TeacherBean.class), controller.person);
+                assertEquals("Husky", controller.dog.type);
+                assertEquals(2, ctx.getBeans(PersonBean.class).size());
+
+                // init method:
+                assertEquals("Scan App / v1.0", ctx.getBean(SpecifyInitBean.class).appName);
+                assertSame(ctx.getBean("createSpecifyInitBean"), ctx.getBean(SpecifyInitBean.class));
+                SpecifyDestroyBean destroyBean = ctx.getBean(SpecifyDestroyBean.class);
+                assertEquals("Scan App", destroyBean.appTitle);
+                ctx.close();
+                // destroy method:
+                assertNull(destroyBean.appTitle);
+            }
+        }
+    }
+
+    @Test
+    public void testLazyBean() throws Exception {
+        int created = LazyBean.CREATED.get();
+        try (AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext(ScanApplication.class, createPropertyResolver())) {
+            assertNull(ctx.findBeanDefinition("lazyBean").getInstance());
+            assertEquals(created, LazyBean.CREATED.get());
+            // 被非延迟Bean依赖的延迟Bean在启动时创建:
+            assertNotNull(ctx.findBeanDefinition("lazyDependencyBean").getInstance());
+
+            // 多个线程同时获取只创建一次:
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            try {
+                List<Future<LazyBean>> futures = new ArrayList<>();
+                for (int i = 0; i < 8; i++) {
+                    futures.add(executor.submit(() -> ctx.getBean(LazyBean.class)));
+                }
+                LazyBean bean = futures.get(0).get();
+                for (Future<LazyBean> future : futures) {
+                    assertSame(bean, future.get());
+                    assertTrue(future.get().initialized);
+                }
+            } finally {
+                executor.shutdown();
+            }
+            assertEquals(created + 1, LazyBean.CREATED.get());
+        }
+    }
+
+    @Test
+    public void testConcurrentLazyCreation() throws Exception {
+        SlowLazyBean.reset();
+        try (AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext(ScanApplication.class, createPropertyResolver())) {
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+            try {
+                Future<SlowLazyBean> slow = executor.submit(() -> ctx.getBean(SlowLazyBean.class));
+                assertTrue(SlowLazyBean.STARTED.await(10, TimeUnit.SECONDS));
+                // 正在创建其他Bean时不阻塞:
+                assertTrue(ctx.getBean(LazyBean.class).initialized);
+                AtomicReference<Thread> waiter = new AtomicReference<>();
+                Future<SlowLazyBean> waiting = executor.submit(() -> {
+                    waiter.set(Thread.currentThread());
+                    return ctx.getBean(SlowLazyBean.class);
+                });
+                // 第二个线程等待正在进行的创建，而不是自己创建:
+                awaitWaiting(waiter);
+                assertFalse(waiting.isDone());
+                SlowLazyBean.RELEASE.countDown();
+                assertSame(slow.get(), waiting.get());
+            } finally {
+                executor.shutdown();
+            }
+            // 创建失败后再次获取会重新创建:
+            int attempts = FailingLazyBean.ATTEMPTS.get();
+            FailingLazyBean.FAIL_NEXT.set(true);
+            assertThrows(BeanCreationException.class, () -> {
+                ctx.getBean(FailingLazyBean.class);
+            });
+            assertSame(ctx.getBean(FailingLazyBean.class), ctx.getBean(FailingLazyBean.class));
+            assertEquals(attempts + 2, FailingLazyBean.ATTEMPTS.get());
+        }
+    }
+
+    @Test
+    public void testLazyFieldCycle() {
+        try (AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext(ScanApplication.class, createPropertyResolver())) {
+            // 字段注入的循环引用，创建线程得到尚未初始化的实例:
+            FieldCycleA a = ctx.getBean(FieldCycleA.class);
+            assertSame(a, a.b.a);
+            assertSame(a.b, ctx.getBean(FieldCycleB.class));
+        }
+    }
+
+    @Test
+    public void testConcurrentLazyCycle() throws Exception {
+        CycleGateA.BARRIER.reset();
+        try (AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext(ScanApplication.class, createPropertyResolver())) {
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+            try {
+                // 两个线程分别创建A和B，然后互相等待对方:
+                Future<CycleLazyA> a = executor.submit(() -> ctx.getBean(CycleLazyA.class));
+                Future<CycleLazyB> b = executor.submit(() -> ctx.getBean(CycleLazyB.class));
+                for (Future<?> future : Arrays.asList(a, b)) {
+                    ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+                    assertTrue(hasCause(e, UnsatisfiedDependencyException.class));
+                }
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+
+    void awaitWaiting(AtomicReference<Thread> thread) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (thread.get() == null || thread.get().getState() != Thread.State.WAITING) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    boolean hasCause(Throwable e, Class<? extends Throwable> type) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (type.isInstance(t)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void testLazyInitByDefault() {
+        Properties ps = createProperties();
+        ps.put(AnnotationConfigApplicationContext.LAZY_INIT_PROPERTY, "true");
+        try (AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext(ScanApplication.class, new PropertyResolver(ps))) {
+            assertNull(ctx.findBeanDefinition("controllerBean").getInstance());
+            assertNull(ctx.findBeanDefinition("serviceBean").getInstance());
+            ControllerBean controller = ctx.getBean(ControllerBean.class);
+            assertSame(ctx.findBeanDefinition("serviceBean").getInstance(), controller.service);
+            assertEquals("Husky", controller.dog.type);
+            assertEquals("Scan App / v1.0", ctx.getBean(SpecifyInitBean.class).appName);
+            FieldCycleB b = ctx.getBean(FieldCycleB.class);
+            assertSame(b, b.a.b);
+        }
+    }
+
+    @Test
+    public void testScopes() throws Exception {
+        try (AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext(ScanApplication.class, createPropertyResolver())) {
+            assertNull(ctx.findBeanDefinition("prototypeBean").getInstance());
+            // 启动时被依赖的prototype在注入阶段注入:
+            PrototypeBean early = ctx.getBean(ScopeConsumerBean.class).prototype;
+            assertSame(ctx.getBean(ServiceBean.class), early.service);
+            assertTrue(early.initialized);
+            PrototypeBean prototype = ctx.getBean(PrototypeBean.class);
+            assertTrue(prototype != early && prototype != ctx.getBean(PrototypeBean.class));
+            assertTrue(prototype.initialized);
+
+            // 对象池:
+            long created = ctx.getCreationCounts().get(Scope.PROTOTYPE);
+            PooledBean pooled = ctx.getBean(PooledBean.class);
+            pooled.uses++;
+            ctx.releaseBean("pooledBean", pooled);
+            assertEquals(0, pooled.uses);
+            assertSame(pooled, ctx.getBean(PooledBean.class));
+            assertEquals(created + 1, (long) ctx.getCreationCounts().get(Scope.PROTOTYPE));
+            // 池已满时销毁:
+            PooledBean[] beans = { pooled, ctx.getBean(PooledBean.class), ctx.getBean(PooledBean.class) };
+            for (PooledBean bean : beans) {
+                ctx.releaseBean("pooledBean", bean);
+            }
+            assertFalse(beans[0].destroyed || beans[1].destroyed);
+            assertTrue(beans[2].destroyed);
+            // 重复归还、null和其他类型的实例:
+            assertThrows(IllegalArgumentException.class, () -> ctx.releaseBean("pooledBean", beans[0]));
+            assertThrows(IllegalArgumentException.class, () -> ctx.releaseBean("pooledBean", null));
+            assertThrows(BeanNotOfRequiredTypeException.class, () -> ctx.releaseBean("pooledBean", prototype));
+            assertFalse(beans[0].destroyed);
+
+            // thread:
+            ThreadBean threadBean = ctx.getBean(ThreadBean.class);
+            assertSame(threadBean, ctx.getBean(ThreadBean.class));
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                assertTrue(threadBean != executor.submit(() -> ctx.getBean(ThreadBean.class)).get());
+            } finally {
+                executor.shutdown();
+            }
+            ctx.destroyScopedBean("threadBean");
+            assertEquals(1, threadBean.destroyed);
+            ThreadBean current = ctx.getBean(ThreadBean.class);
+            assertTrue(threadBean != current);
+            // 其他线程的实例在关闭时销毁:
+            ThreadBean[] other = new ThreadBean[1];
+            Thread worker = new Thread(() -> other[0] = ctx.getBean(ThreadBean.class));
+            worker.start();
+            worker.join();
+
+            // 自定义作用域:
+            assertThrows(BeanCreationException.class, () -> {
+                ctx.getBean(ConversationBean.class);
+            });
+            Map<String, Object> conversation = new HashMap<>();
+            ctx.registerScope("conversation", new BeanScope() {
+                @Override
+                public Object get(String name, Supplier<Object> factory) {
+                    Object instance = conversation.get(name);
+                    if (instance == null) {
+                        instance = factory.get();
+                        conversation.put(name, instance);
+                    }
+                    return instance;
+                }
+
+                @Override
+                public Object remove(String name) {
+                    return conversation.remove(name);
+                }
+            });
+            ConversationBean conversationBean = ctx.getBean(ConversationBean.class);
+            assertSame(conversationBean, ctx.getBean(ConversationBean.class));
+            ctx.destroyScopedBean("conversationBean");
+            assertTrue(conversationBean.destroyed);
+            assertTrue(conversation.isEmpty());
+            assertTrue(ctx.getCreationCounts().get("conversation") == 1);
+
+            ctx.close();
+            assertTrue(beans[0].destroyed && beans[1].destroyed);
+            assertEquals(1, current.destroyed);
+            assertEquals(1, other[0].destroyed);
+            assertEquals(1, threadBean.destroyed);
+            // 重复关闭时不再调用destroy方法:
+            ctx.close();
+            assertEquals(1, current.destroyed);
+            assertEquals(1, other[0].destroyed);
+        }
+    }
+
+    @Test
+    public void testCircularDependency() {
+        UnsatisfiedDependencyException e = assertThrows(UnsatisfiedDependencyException.class, () -> {
+            new AnnotationConfigApplicationContext(CycleApplication.class, createPropertyResolver());
+        });
+        assertEquals("Circular dependency detected: cycleA -> cycleB -> cycleA", e.getMessage());
+    }
+
+    @Test
+    public void testComponentIndex() {
+        ComponentIndex index = ComponentIndex.load();
+        assertNotNull(index);
+        List<String> candidates = index.getCandidates("org.yxw.scan");
+        assertTrue(candidates.contains(OuterBean.NestedBean.class.getName()));
+        assertTrue(candidates.contains(CustomAnnotationBean.class.getName()));
+        assertFalse(candidates.contains(PersonBean.class.getName()));
+        assertFalse(candidates.contains(LocalDateConfiguration.class.getName()));
+
+        Properties ps = createProperties();
+        ps.put(AnnotationConfigApplicationContext.COMPONENT_INDEX_PROPERTY, "false");
+        try (AnnotationConfigApplicationContext indexCtx = new AnnotationConfigApplicationContext(ScanApplication.class, createPropertyResolver());
+                AnnotationConfigApplicationContext scanCtx = new AnnotationConfigApplicationContext(ScanApplication.class, new PropertyResolver(ps))) {
+            assertEquals(beanNames(scanCtx), beanNames(indexCtx));
+        }
+    }
+
+    @Test
+    public void testComponentIndexFallback(@TempDir Path dir) throws Exception {
+        // 只有另一个根目录有索引文件时，test-classes仍然被扫描:
+        Path indexFile = dir.resolve(ComponentIndex.INDEX_LOCATION);
+        Files.createDirectories(indexFile.getParent());
+        Files.write(indexFile, Collections.singletonList("# empty"));
+        ClassLoader parent = getClass().getClassLoader();
+        ClassLoader classLoader = new URLClassLoader(new URL[] { dir.toUri().toURL() }, parent) {
+            @Override
+            public Enumeration<URL> getResources(String name) throws IOException {
+                if (ComponentIndex.INDEX_LOCATION.equals(name)) {
+                    return findResources(name);
+                }
+                return super.getResources(name);
+            }
+        };
+        ComponentIndex index = ComponentIndex.load(classLoader);
+        assertEquals(0, index.size());
+        assertTrue(index.isIndexed(dir.toUri().toURL().toString()));
+
+        Properties ps = createProperties();
+        ps.put(AnnotationConfigApplicationContext.COMPONENT_INDEX_PROPERTY, "false");
+        Thread current = Thread.currentThread();
+        ClassLoader original = current.getContextClassLoader();
+        current.setContextClassLoader(classLoader);
+        try (AnnotationConfigApplicationContext indexCtx = new AnnotationConfigApplicationContext(ScanApplication.class, createPropertyResolver());
+                AnnotationConfigApplicationContext scanCtx = new AnnotationConfigApplicationContext(ScanApplication.class, new PropertyResolver(ps))) {
+            assertEquals(beanNames(scanCtx), beanNames(indexCtx));
+        } finally {
+            current.setContextClassLoader(original);
+        }
+    }
+
+    @Test
+    public void testCandidateFilter() {
+        ComponentCandidateFilter filter = new ComponentCandidateFilter(getClass().getClassLoader());
+        assertTrue(filter.isCandidate(StudentBean.class.getName()));
+        assertTrue(filter.isCandidate(CustomAnnotationBean.class.getName()));
+        assertTrue(filter.isCandidate(OuterBean.NestedBean.class.getName()));
+        assertFalse(filter.isCandidate(PersonBean.class.getName()));
+        assertFalse(filter.isCandidate("org.yxw.scan.custom.annotation.CustomAnnotation"));
+
+        // 扫描到的非组件类不会被加载:
+        Properties ps = createProperties();
+        ps.put(AnnotationConfigApplicationContext.COMPONENT_INDEX_PROPERTY, "false");
+        try (AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext(ScanApplication.class, new PropertyResolver(ps))) {
+            assertNull(System.getProperty(StaticInitDto.LOADED_PROPERTY));
+        }
+    }
+
+    @Test
+    public void testParallelScan() {
+        Properties serialPs = createProperties();
+        serialPs.put(AnnotationConfigApplicationContext.COMPONENT_INDEX_PROPERTY, "false");
+        Properties ps = createProperties();
+        ps.put(AnnotationConfigApplicationContext.COMPONENT_INDEX_PROPERTY, "false");
+        ps.put(AnnotationConfigApplicationContext.PARALLEL_SCAN_PROPERTY, "true");
+        ps.put(AnnotationConfigApplicationContext.SCAN_PARALLELISM_PROPERTY, "2");
+        try (AnnotationConfigApplicationContext serialCtx = new AnnotationConfigApplicationContext(ScanApplication.class, new PropertyResolver(serialPs));
+                AnnotationConfigApplicationContext parallelCtx = new AnnotationConfigApplicationContext(ScanApplication.class, new PropertyResolver(ps))) {
+            assertEquals(beanNames(serialCtx), beanNames(parallelCtx));
+            assertNotNull(parallelCtx.findBeanDefinition(OuterBean.NestedBean.class));
+        }
+    }
+
+    List<String> beanNames(AnnotationConfigApplicationContext ctx) {
+        return ctx.findBeanDefinitions(Object.class).stream().map(BeanDefinition::getName).collect(Collectors.toList());
+    }
+
     PropertyResolver createPropertyResolver() {
+        return new PropertyResolver(createProperties());
+    }
+
+    Properties createProperties() {
         Properties ps = new Properties();
         ps.put("app.title", "Scan App");
         ps.put("app.version", "v1.0");
         ps.put("jdbc.url", "jdbc:hsqldb:file:testdb.tmp");
         ps.put("jdbc.username", "sa");
         ps.put("jdbc.password", "");
+        ps.put("jdbc.max-pool-size", "20");
+        ps.put("jdbc.pool.max-size", "5");
+        ps.put("jdbc.pool.idle-timeout", "PT1M");
         ps.put("convert.boolean", "true");
         ps.put("convert.byte", "123");
         ps.put("convert.short", "12345");
@@ -69,7 +663,6 @@ public class AnnotationConfigApplicationContextTest {
         ps.put("convert.zoneddatetime", "2023-03-29T20:45:01+08:00[Asia/Shanghai]");
         ps.put("convert.duration", "P2DT3H4M");
         ps.put("convert.zoneid", "Asia/Shanghai");
-        PropertyResolver pr = new PropertyResolver(ps);
-        return pr;
+        return ps;
     }
 }
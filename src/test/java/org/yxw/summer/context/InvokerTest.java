@@ -0,0 +1,80 @@
+package org.yxw.summer.context;
+
+import org.junit.jupiter.api.Test;
+import org.yxw.context.Invoker;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InvokerTest {
+
+    public static class PublicBean {
+        public final List<String> calls = new ArrayList<>();
+
+        public PublicBean() {
+        }
+
+        public void init() {
+            calls.add("init");
+        }
+
+        String join(String a, int b) {
+            return a + b;
+        }
+
+        private void fail() {
+            throw new IllegalStateException("failed");
+        }
+
+        static String create(String name) {
+            return "static-" + name;
+        }
+    }
+
+    static class PrivateBean {
+        final String name;
+
+        private PrivateBean(String name) {
+            this.name = name;
+        }
+    }
+
+    @Test
+    public void testInvokeConstructor() throws Throwable {
+        Invoker noArgs = Invoker.of(PublicBean.class.getConstructor());
+        assertTrue(noArgs.invoke(null, new Object[0]) instanceof PublicBean);
+        // public无参构造方法使用LambdaMetafactory:
+        assertEquals("SupplierInvoker", noArgs.getClass().getSimpleName());
+
+        Invoker withArgs = Invoker.of(PrivateBean.class.getDeclaredConstructor(String.class));
+        PrivateBean bean = (PrivateBean) withArgs.invoke(null, new Object[] { "summer" });
+        assertEquals("summer", bean.name);
+    }
+
+    @Test
+    public void testInvokeMethod() throws Throwable {
+        PublicBean bean = new PublicBean();
+        Invoker init = Invoker.of(PublicBean.class.getMethod("init"));
+        init.invoke(bean, new Object[0]);
+        init.invoke(bean, new Object[0]);
+        assertEquals(2, bean.calls.size());
+        assertEquals("ConsumerInvoker", init.getClass().getSimpleName());
+
+        Invoker join = Invoker.of(PublicBean.class.getDeclaredMethod("join", String.class, int.class));
+        assertEquals("a1", join.invoke(bean, new Object[] { "a", 1 }));
+
+        Invoker create = Invoker.of(PublicBean.class.getDeclaredMethod("create", String.class));
+        assertEquals("static-x", create.invoke(null, new Object[] { "x" }));
+    }
+
+    @Test
+    public void testExceptionNotWrapped() throws Throwable {
+        Invoker fail = Invoker.of(PublicBean.class.getDeclaredMethod("fail"));
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> {
+            fail.invoke(new PublicBean(), new Object[0]);
+        });
+        assertEquals("failed", e.getMessage());
+    }
+}
@@ -0,0 +1,84 @@
+package org.yxw.utils;
+
+import org.junit.jupiter.api.Test;
+import org.yxw.annotation.Component;
+import org.yxw.annotation.Configuration;
+import org.yxw.context.ComponentCandidateFilter;
+import org.yxw.exception.ClassFileFormatException;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClassFileReaderTest {
+
+    @Test
+    public void readComponent() {
+        ClassFileMetadata metadata = ClassFileReader.read(getClass().getClassLoader(), SimpleComponentWithName.class.getName());
+        assertNotNull(metadata);
+        assertEquals(SimpleComponentWithName.class.getName(), metadata.getClassName());
+        assertEquals("java.lang.Object", metadata.getSuperClassName());
+        assertTrue(metadata.getAnnotationTypes().contains(Component.class.getName()));
+        assertFalse(metadata.isInterface());
+    }
+
+    @Test
+    public void readMetaAnnotation() {
+        ClassFileMetadata custom = ClassFileReader.read(getClass().getClassLoader(), Custom.class.getName());
+        assertEquals(1, custom.getAnnotationTypes().size());
+        assertEquals(CustomComponent.class.getName(), custom.getAnnotationTypes().get(0));
+
+        ClassFileMetadata annotation = ClassFileReader.read(getClass().getClassLoader(), Configuration.class.getName());
+        assertTrue(annotation.isAnnotation());
+        assertTrue(annotation.isInterface());
+        assertTrue(annotation.getAnnotationTypes().contains(Component.class.getName()));
+    }
+
+    @Test
+    public void readNoAnnotation() {
+        ClassFileMetadata metadata = ClassFileReader.read(getClass().getClassLoader(), ClassFileReaderTest.class.getName());
+        assertTrue(metadata.getAnnotationTypes().isEmpty());
+        assertNull(ClassFileReader.read(getClass().getClassLoader(), "org.yxw.NotExist"));
+        assertThrows(ClassFileFormatException.class, () -> {
+            ClassFileReader.read(new byte[] { 1, 2, 3, 4 });
+        });
+    }
+
+    @Test
+    public void readMalformed() {
+        // 常量池中有未知的tag 99:
+        byte[] unknownTag = { (byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 0, 0, 0, 99, 0, 2, 99, 0, 0 };
+        ClassLoader classLoader = new ClassLoader(getClass().getClassLoader()) {
+            @Override
+            public InputStream getResourceAsStream(String name) {
+                if (name.equals("org/yxw/Corrupt.class")) {
+                    return new ByteArrayInputStream(new byte[] { (byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 0 });
+                }
+                if (name.equals("org/yxw/UnknownTag.class")) {
+                    return new ByteArrayInputStream(unknownTag);
+                }
+                return super.getResourceAsStream(name);
+            }
+        };
+        assertThrows(ClassFileFormatException.class, () -> {
+            ClassFileReader.read(unknownTag);
+        });
+        // 文件被截断:
+        assertThrows(ClassFileFormatException.class, () -> {
+            ClassFileReader.read(Arrays.copyOf(unknownTag, 9));
+        });
+        // this_class指向的CONSTANT_Class又指向自身而不是CONSTANT_Utf8:
+        byte[] wrongType = { (byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 0, 0, 0, 52, 0, 3, 7, 0, 1, 1, 0, 1, 'A', 0, 0x21, 0, 1, 0, 0 };
+        assertThrows(ClassFileFormatException.class, () -> {
+            ClassFileReader.read(wrongType);
+        });
+        assertNull(ClassFileReader.read(classLoader, "org.yxw.Corrupt"));
+        assertNull(ClassFileReader.read(classLoader, "org.yxw.UnknownTag"));
+        // 无法判断时保留为候选:
+        ComponentCandidateFilter filter = new ComponentCandidateFilter(classLoader);
+        assertTrue(filter.isCandidate("org.yxw.Corrupt"));
+        assertTrue(filter.isCandidate("org.yxw.UnknownTag"));
+    }
+}
@@ -53,6 +53,24 @@ public class ClassUtilsTest {
     static class DuplicateAnnotatedClass {
     }
 
+    // 互相标注的注解
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ElementType.TYPE, ElementType.ANNOTATION_TYPE})
+    @CycleB
+    @DirectAnnotation("cycle")
+    public @interface CycleA {
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ElementType.TYPE, ElementType.ANNOTATION_TYPE})
+    @CycleA
+    public @interface CycleB {
+    }
+
+    @CycleB
+    static class CycleAnnotatedClass {
+    }
+
     @Test
     public void testFindDirectAnnotation() {
         // 测试直接标注的注解
@@ -86,5 +104,27 @@ public class ClassUtilsTest {
             ClassUtils.findAnnotation(DuplicateAnnotatedClass.class, DirectAnnotation.class);
         });
     }
-}
 
+    @Test
+    public void testCyclicMetaAnnotation() {
+        // 不会无限递归，且结果被缓存:
+        DirectAnnotation annotation = ClassUtils.findAnnotation(CycleAnnotatedClass.class, DirectAnnotation.class);
+        assertNotNull(annotation);
+        assertEquals("cycle", annotation.value());
+        assertNotNull(ClassUtils.findAnnotation(CycleAnnotatedClass.class, CycleA.class));
+        assertNull(ClassUtils.findAnnotation(CycleAnnotatedClass.class, Deprecated.class));
+        assertSame(annotation, ClassUtils.findAnnotation(CycleAnnotatedClass.class, DirectAnnotation.class));
+        // 重复的注解每次都抛出异常:
+        for (int i = 0; i < 2; i++) {
+            assertThrows(BeanDefinitionException.class, () -> {
+                ClassUtils.findAnnotation(DuplicateAnnotatedClass.class, DirectAnnotation.class);
+            });
+        }
+        // 循环中的注解类型单独查找:
+        assertEquals("cycle", ClassUtils.findAnnotation(CycleB.class, DirectAnnotation.class).value());
+        assertNotNull(ClassUtils.findAnnotation(CycleA.class, CycleB.class));
+        // 清除缓存后重新计算:
+        ClassUtils.clearCache();
+        assertSame(annotation, ClassUtils.findAnnotation(CycleAnnotatedClass.class, DirectAnnotation.class));
+    }
+}
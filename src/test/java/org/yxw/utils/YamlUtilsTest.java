@@ -2,10 +2,16 @@ package org.yxw.utils;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class YamlUtilsTest {
 
@@ -26,4 +32,56 @@ public class YamlUtilsTest {
         assertEquals("0x1a2b3c", configs.get("other.hex-data"));
         assertEquals("0x1a2b3c", configs.get("other.hex-string"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testAliasBomb() {
+        // 9层，每层引用上一层10次:
+        StringBuilder sb = new StringBuilder("a0: &a0 {x: y}\n");
+        for (int i = 1; i < 10; i++) {
+            sb.append("a").append(i).append(": &a").append(i).append(" [");
+            for (int j = 0; j < 10; j++) {
+                sb.append(j == 0 ? "" : ", ").append("*a").append(i - 1);
+            }
+            sb.append("]\n");
+        }
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> YamlUtils.flattenYaml(
+                new ByteArrayInputStream(sb.toString().getBytes(StandardCharsets.UTF_8)), (k, v) -> {}));
+        assertEquals("Number of aliases for non-scalar nodes exceeds the specified max=50", e.getMessage());
+    }
+
+    @Test
+    public void testFlattenYaml() {
+        String yaml = String.join("\n",
+                "base: &base",
+                "  host: localhost",
+                "  ports: [80, 443]",
+                "name: &name summer",
+                "server:",
+                "  primary: *base",
+                "  title: *name",
+                "  routes:",
+                "    - path: /a",
+                "      target: [x, y]",
+                "    - /b",
+                "  empty:",
+                "---",
+                "ignored: true");
+        Map<String, Object> configs = new LinkedHashMap<>();
+        YamlUtils.flattenYaml(new ByteArrayInputStream(yaml.getBytes(StandardCharsets.UTF_8)), configs::put);
+
+        assertEquals("localhost", configs.get("base.host"));
+        assertEquals(Arrays.asList("80", "443"), configs.get("base.ports"));
+        assertEquals("localhost", configs.get("server.primary.host"));
+        assertEquals(Arrays.asList("80", "443"), configs.get("server.primary.ports"));
+        assertEquals("summer", configs.get("server.title"));
+        Map<String, Object> route = new LinkedHashMap<>();
+        route.put("path", "/a");
+        route.put("target", Arrays.asList("x", "y"));
+        assertEquals(Arrays.asList(route, "/b"), configs.get("server.routes"));
+        assertEquals("", configs.get("server.empty"));
+        // 只读取第一个文档:
+        assertNull(configs.get("ignored"));
+        assertEquals(Arrays.asList("base.host", "base.ports", "name", "server.primary.host", "server.primary.ports", "server.title", "server.routes",
+                "server.empty"), new ArrayList<>(configs.keySet()));
+    }
+}